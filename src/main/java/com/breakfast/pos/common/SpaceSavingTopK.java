@@ -0,0 +1,80 @@
+package com.breakfast.pos.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 串流 top-K 估計 (Metwally et al.)
+ * 最多追蹤 capacity 個 key；新 key 在計數器已滿時取代計數最小者並繼承其計數，
+ * 因此估計值只會高估，高估量不超過 error。只要真實次數大於 總量 / capacity 的 key 必定在追蹤名單中。
+ * 不支援扣減；方法以物件鎖序列化，適用於寫入頻率不高的場景 (例如結帳)。
+ */
+public final class SpaceSavingTopK<K> {
+
+    private final int capacity;
+    private final Map<K, Counter> counters;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void add(K key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight, 0));
+            return;
+        }
+        // 計數器數量固定且不大，直接線性找最小值
+        K minKey = null;
+        Counter min = null;
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            if (min == null || entry.getValue().count < min.count) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new Counter(min.count + weight, min.count));
+    }
+
+    /**
+     * @return 估計次數最高的 k 個 key，依估計次數遞減排序
+     */
+    public synchronized List<Estimate<K>> top(int k) {
+        List<Estimate<K>> estimates = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> estimates.add(new Estimate<>(key, counter.count, counter.error)));
+        estimates.sort(Comparator.comparingLong(Estimate<K>::count).reversed());
+        return estimates.size() > k ? List.copyOf(estimates.subList(0, k)) : estimates;
+    }
+
+    /**
+     * @param count 估計次數 (可能高估)
+     * @param error 高估量上限，count - error 為真實次數的下界
+     */
+    public record Estimate<K>(K key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
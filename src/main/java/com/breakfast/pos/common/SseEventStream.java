@@ -0,0 +1,192 @@
+package com.breakfast.pos.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events 廣播通道
+ * - 閒置連線只佔用 async servlet 的 SseEmitter，不佔用執行緒
+ * - 每個訂閱者有自己的佇列，由 virtual thread 依序送出，慢速連線不會拖累其他訂閱者
+ * - 保留最近的事件於環狀緩衝區，重新連線時依 Last-Event-ID 補送
+ * - 定期送出 heartbeat 註解，讓代理伺服器與客戶端偵測斷線
+ */
+@Slf4j
+public class SseEventStream {
+
+    /** 客戶端 Last-Event-ID 已不在緩衝區內時送出，提示重新載入完整資料 */
+    public static final String RESET_EVENT = "reset";
+
+    private final String name;
+    private final int bufferSize;
+    private final long emitterTimeoutMillis;
+    private final ArrayDeque<Event> buffer;
+    private long lastId;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory senderFactory;
+    private final ScheduledExecutorService heartbeat;
+
+    public SseEventStream(String name, int bufferSize, Duration emitterTimeout, Duration heartbeatInterval) {
+        this(name, bufferSize, emitterTimeout, heartbeatInterval, 0);
+    }
+
+    /**
+     * @param initialId 尚未發佈任何事件前的最新 id，客戶端帶此 id 重新連線視為已同步
+     */
+    public SseEventStream(String name, int bufferSize, Duration emitterTimeout, Duration heartbeatInterval,
+                          long initialId) {
+        this.name = name;
+        this.lastId = initialId;
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.buffer = new ArrayDeque<>(bufferSize);
+        this.senderFactory = Thread.ofVirtual().name("sse-" + name + "-", 0).factory();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("sse-" + name + "-heartbeat").daemon().factory());
+        long interval = heartbeatInterval.toMillis();
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 建立訂閱；lastEventId 不為 null 時補送之後的事件
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // 加入訂閱者與補送在同一把鎖內，發佈中的事件不會遺失或亂序
+        synchronized (buffer) {
+            subscribers.add(subscriber);
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * 廣播事件；id 需單調遞增
+     */
+    public void publish(long id, String eventName, Object data) {
+        Event event = new Event(id, eventName, data);
+        synchronized (buffer) {
+            if (buffer.size() == bufferSize) {
+                buffer.removeFirst();
+            }
+            buffer.addLast(event);
+            lastId = id;
+            // 與 replay 同一把鎖，確保每個訂閱者佇列中的事件依 id 排序
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(event);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        if (lastEventId == lastId) {
+            return;
+        }
+        Event oldest = buffer.peekFirst();
+        // 太舊 (已被覆蓋) 或來自其他程序 (大於目前最新 id) 時無法補送
+        if (oldest == null || lastEventId < oldest.id() - 1 || lastEventId > lastId) {
+            subscriber.enqueue(new Event(lastId, RESET_EVENT, "reset"));
+            return;
+        }
+        for (Event event : buffer) {
+            if (event.id() > lastEventId) {
+                subscriber.enqueue(event);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(Event.HEARTBEAT);
+        }
+    }
+
+    private record Event(long id, String name, Object data) {
+        static final Event HEARTBEAT = new Event(-1, null, null);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private long lastSentId = Long.MIN_VALUE;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Event event) {
+            pending.add(event);
+            if (sending.compareAndSet(false, true)) {
+                senderFactory.newThread(this::drain).start();
+            }
+        }
+
+        private void drain() {
+            do {
+                Event event;
+                while ((event = pending.poll()) != null) {
+                    if (!send(event)) {
+                        return;
+                    }
+                }
+                sending.set(false);
+            } while (!pending.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private boolean send(Event event) {
+            try {
+                if (event == Event.HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    return true;
+                }
+                if (event.id() <= lastSentId && !RESET_EVENT.equals(event.name())) {
+                    return true;
+                }
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(event.name())
+                        .data(event.data(), MediaType.APPLICATION_JSON));
+                lastSentId = Math.max(lastSentId, event.id());
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE stream {} subscriber disconnected: {}", name, e.getMessage());
+                subscribers.remove(this);
+                pending.clear();
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.breakfast.pos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 啟用 @Scheduled 排程 (訂單分割區維護等背景作業)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -90,6 +90,8 @@ public class SecurityConfig {
 
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        // 讓跨來源的前端可讀取 ETag 與訂單列表的 keyset 分頁標頭
+        configuration.setExposedHeaders(List.of("ETag", "X-Next-Cursor", "X-Total-Estimate"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,11 +1,22 @@
 package com.breakfast.pos.controller;
 
 import com.breakfast.pos.common.ApiResponse;
+import com.breakfast.pos.model.dto.OrderCursorPage;
 import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.dto.OrderStatusUpdateResult;
 import com.breakfast.pos.service.AdminOrderService;
+import com.breakfast.pos.service.OrderExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -13,13 +24,51 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminOrderController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String TOTAL_ESTIMATE_HEADER = "X-Total-Estimate";
+
     private final AdminOrderService adminOrderService;
+    private final OrderExportService orderExportService;
 
+    /**
+     * 訂單列表 (keyset 分頁)
+     * 下一頁的游標放在 X-Next-Cursor 標頭 (最後一頁不帶)，估計總筆數放在 X-Total-Estimate；
+     * 回應本體維持訂單陣列，與既有前端相容
+     */
     @GetMapping
-    public ApiResponse<List<OrderResponse>> getAllOrders(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        return ApiResponse.success(adminOrderService.getAllOrders(page, size));
+    public ResponseEntity<ApiResponse<List<OrderResponse>>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        OrderCursorPage page = adminOrderService.getOrders(cursor, size, estimateTotal);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.estimatedTotal() != null) {
+            response.header(TOTAL_ESTIMATE_HEADER, String.valueOf(page.estimatedTotal()));
+        }
+        return response.body(ApiResponse.success(page.orders()));
+    }
+
+    /**
+     * 匯出期間內 (含起訖日) 的訂單與明細，逐列串流寫出，不受區間大小影響記憶體
+     */
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat = OrderExportService.Format.parse(format);
+        orderExportService.validateRange(from, to);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders-" + from + "_" + to + "." + exportFormat.extension())
+                .build()
+                .toString());
+        orderExportService.export(from, to, exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -34,5 +83,16 @@ public class AdminOrderController {
         return ApiResponse.success(adminOrderService.updateOrderStatus(id, request.status()));
     }
 
+    /**
+     * 批次更新訂單狀態 (例如廚房一次送出多筆)，回傳每筆訂單的處理結果
+     */
+    @PutMapping("/status")
+    public ApiResponse<List<OrderStatusUpdateResult>> updateOrderStatuses(
+            @RequestBody BulkStatusUpdateRequest request) {
+        return ApiResponse.success(adminOrderService.updateOrderStatuses(request.ids(), request.status()));
+    }
+
     public record StatusUpdateRequest(String status) {}
+
+    public record BulkStatusUpdateRequest(List<Long> ids, String status) {}
 }
@@ -0,0 +1,32 @@
+package com.breakfast.pos.controller;
+
+import com.breakfast.pos.common.ApiResponse;
+import com.breakfast.pos.service.AdminUserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private final AdminUserService adminUserService;
+
+    /**
+     * 停用或重新啟用帳號；停用後既有 token 立即失效
+     */
+    @PutMapping("/{username}/active")
+    public ApiResponse<Void> updateActive(@PathVariable String username, @RequestParam boolean active) {
+        adminUserService.updateActive(username, active);
+        return ApiResponse.success(null);
+    }
+
+    /**
+     * 撤銷該使用者所有已簽發的 token
+     */
+    @PostMapping("/{username}/revoke-tokens")
+    public ApiResponse<Void> revokeTokens(@PathVariable String username) {
+        adminUserService.revokeTokens(username);
+        return ApiResponse.success(null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.breakfast.pos.controller;
+
+import com.breakfast.pos.common.ApiResponse;
+import com.breakfast.pos.model.dto.KitchenBoardResponse;
+import com.breakfast.pos.service.KitchenBoard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 廚房看板 API (需登入，STAFF / ADMIN 皆可)
+ * 先取得看板快照，再以快照的 version 作為 Last-Event-ID 訂閱差異推播；皆不查詢資料庫
+ */
+@RestController
+@RequestMapping("/api/kitchen")
+@RequiredArgsConstructor
+public class KitchenController {
+
+    private final KitchenBoard kitchenBoard;
+
+    @GetMapping("/board")
+    public ApiResponse<KitchenBoardResponse> getBoard() {
+        return ApiResponse.success(kitchenBoard.snapshot());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return kitchenBoard.subscribe(lastEventId);
+    }
+}
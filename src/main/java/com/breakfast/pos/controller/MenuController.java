@@ -1,16 +1,27 @@
 package com.breakfast.pos.controller;
 
 import com.breakfast.pos.common.ApiResponse;
-import com.breakfast.pos.model.dto.CategoryResponse;
+import com.breakfast.pos.model.dto.MenuDeltaResponse;
 import com.breakfast.pos.model.dto.ProductResponse;
+import com.breakfast.pos.service.MenuChangeStream;
+import com.breakfast.pos.service.MenuResponseCache;
+import com.breakfast.pos.service.MenuResponseCache.CachedResponse;
 import com.breakfast.pos.service.MenuService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/menu")
@@ -18,15 +29,45 @@ import java.util.List;
 public class MenuController {
 
     private final MenuService menuService;
+    private final MenuResponseCache menuResponseCache;
+    private final MenuChangeStream menuChangeStream;
 
+    /**
+     * 商品列表 (ETag + If-None-Match，菜單未異動時回傳 304)
+     */
     @GetMapping("/products")
-    public ApiResponse<List<ProductResponse>> getAllProducts() {
-        return ApiResponse.success(menuService.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return conditional(menuResponseCache.get("products", menuService::getAllProducts), ifNoneMatch,
+                acceptEncoding);
     }
 
+    /**
+     * 分類列表 (ETag + If-None-Match，菜單未異動時回傳 304)
+     */
     @GetMapping("/categories")
-    public ApiResponse<List<CategoryResponse>> getCategories() {
-        return ApiResponse.success(menuService.getAllCategories());
+    public ResponseEntity<byte[]> getCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return conditional(menuResponseCache.get("categories", menuService::getAllCategories), ifNoneMatch,
+                acceptEncoding);
+    }
+
+    /**
+     * 差異同步：回傳 since 版本之後的異動；未帶 since 或版本過舊時回傳完整菜單
+     */
+    @GetMapping("/changes")
+    public ApiResponse<MenuDeltaResponse> getChanges(@RequestParam(required = false) Long since) {
+        return ApiResponse.success(menuService.getChangesSince(since == null ? -1 : since));
+    }
+
+    /**
+     * 菜單異動推播 (SSE)，重新連線時帶 Last-Event-ID 補送遺漏的事件
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return menuChangeStream.subscribe(lastEventId);
     }
 
     @GetMapping("/products/{id}")
@@ -35,4 +76,66 @@ public class MenuController {
                 .map(ApiResponse::success)
                 .orElseGet(() -> ApiResponse.error("Product not found with id: " + id));
     }
+
+    private ResponseEntity<byte[]> conditional(CachedResponse cached, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+        if (cached.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return builder.body(cached.json());
+    }
+
+    /**
+     * 依 Accept-Encoding 的編碼名稱與 q 值判斷是否回傳 gzip
+     * 只比對完整的 gzip / x-gzip 名稱，q=0 表示拒絕；未列出 gzip 時依 * 的 q 值
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip == null ? 0 : gzip, qValue(parts));
+            } else if (coding.equals("*")) {
+                wildcard = qValue(parts);
+            }
+        }
+        double q = gzip != null ? gzip : wildcard != null ? wildcard : 0;
+        return q > 0;
+    }
+
+    /**
+     * 未帶 q 參數時為 1；格式錯誤時視為 0 (不接受)
+     */
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(param.substring(eq + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
 }
@@ -3,8 +3,11 @@ package com.breakfast.pos.controller;
 import com.breakfast.pos.common.ApiResponse;
 import com.breakfast.pos.model.dto.OrderRequest;
 import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.service.BatchCheckoutService;
 import com.breakfast.pos.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +15,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 訂單 API 控制器
  */
@@ -21,10 +28,22 @@ import jakarta.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final BatchCheckoutService batchCheckoutService;
 
     @PostMapping("/checkout")
     public ApiResponse<OrderResponse> checkout(@Valid @RequestBody OrderRequest request) {
         OrderResponse completedOrder = orderService.placeOrder(request);
         return ApiResponse.success(completedOrder);
     }
+
+    /**
+     * 離線補單：接受 JSON 陣列或 NDJSON，逐筆以 NDJSON 回傳結果
+     */
+    @PostMapping(value = "/checkout/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void checkoutBatch(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        batchCheckoutService.checkout(body, response.getOutputStream());
+    }
 }
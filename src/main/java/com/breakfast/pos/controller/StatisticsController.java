@@ -1,13 +1,21 @@
 package com.breakfast.pos.controller;
 
 import com.breakfast.pos.common.ApiResponse;
+import com.breakfast.pos.model.dto.OrderLineQueryRequest;
+import com.breakfast.pos.service.StatisticsResponseCache;
 import com.breakfast.pos.service.StatisticsService;
+import com.breakfast.pos.service.StatisticsService.HeatmapCell;
+import com.breakfast.pos.service.StatisticsService.LiveTopProduct;
+import com.breakfast.pos.service.StatisticsService.OrderLineGroup;
 import com.breakfast.pos.service.StatisticsService.RevenueData;
 import com.breakfast.pos.service.StatisticsService.TodayStatistics;
 import com.breakfast.pos.service.StatisticsService.TopProduct;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,7 +24,11 @@ import java.util.List;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final StatisticsResponseCache statisticsCache;
 
+    /**
+     * 取自記憶體計數器，不經快取以即時反映結帳
+     */
     @GetMapping("/today")
     public ApiResponse<TodayStatistics> getTodayStatistics() {
         return ApiResponse.success(statisticsService.getTodayStatistics());
@@ -25,12 +37,51 @@ public class StatisticsController {
     @GetMapping("/revenue")
     public ApiResponse<List<RevenueData>> getRevenueData(
             @RequestParam(defaultValue = "7") int days) {
-        return ApiResponse.success(statisticsService.getRevenueData(days));
+        return ApiResponse.success(statisticsCache.get(statisticsService.revenueCacheKey(days),
+                () -> statisticsService.getRevenueData(days)));
+    }
+
+    /**
+     * 重新計算區間內 (含起訖日) 的每日與時段彙總，回傳重建的彙總列數
+     */
+    @PostMapping("/daily-sales/rebuild")
+    public ApiResponse<Integer> rebuildDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ApiResponse.success(statisticsService.rebuildDailySales(from, to));
     }
 
     @GetMapping("/top-products")
     public ApiResponse<List<TopProduct>> getTopProducts(
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) Integer days) {
+        return ApiResponse.success(statisticsCache.get(statisticsService.topProductsCacheKey(limit, days),
+                () -> statisticsService.getTopProducts(limit, days)));
+    }
+
+    @GetMapping("/top-products/live")
+    public ApiResponse<List<LiveTopProduct>> getLiveTopProducts(
             @RequestParam(defaultValue = "5") int limit) {
-        return ApiResponse.success(statisticsService.getTopProducts(limit));
+        return ApiResponse.success(statisticsService.getLiveTopProducts(limit));
+    }
+
+    /**
+     * 星期 × 時段銷售熱區，granularity 為每格分鐘數 (15 / 30 / 60)
+     */
+    @GetMapping("/heatmap")
+    public ApiResponse<List<HeatmapCell>> getHeatmap(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "60") int granularity) {
+        return ApiResponse.success(statisticsCache.get(statisticsService.heatmapCacheKey(from, to, granularity),
+                () -> statisticsService.getHeatmap(from, to, granularity)));
+    }
+
+    /**
+     * 訂單明細臨時分析 (篩選 / 分組 / 加總)，由記憶體欄式儲存回答
+     */
+    @PostMapping("/query")
+    public ApiResponse<List<OrderLineGroup>> queryOrderLines(@Valid @RequestBody OrderLineQueryRequest request) {
+        return ApiResponse.success(statisticsService.queryOrderLines(request));
     }
 }
@@ -0,0 +1,8 @@
+package com.breakfast.pos.event;
+
+/**
+ * 菜單異動事件 (商品新增、修改、刪除、上下架)，於菜單交易內發佈
+ * 監聽者應使用 @TransactionalEventListener，僅在交易提交後處理
+ */
+public record MenuChangedEvent(Long productId) {
+}
@@ -0,0 +1,13 @@
+package com.breakfast.pos.event;
+
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import com.breakfast.pos.service.MenuSnapshot;
+
+import java.util.List;
+
+/**
+ * 菜單快照重建完成事件，依版本順序同步發佈
+ * changes 為上一份快照之後的異動紀錄 (依版本排序)，首次載入時為空
+ */
+public record MenuSnapshotRefreshedEvent(MenuSnapshot snapshot, List<MenuChangeLog> changes) {
+}
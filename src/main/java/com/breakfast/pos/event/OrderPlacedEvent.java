@@ -0,0 +1,10 @@
+package com.breakfast.pos.event;
+
+import com.breakfast.pos.model.dto.OrderResponse;
+
+/**
+ * 訂單建立事件，於下單交易內發佈
+ * 監聽者應使用 @TransactionalEventListener，僅在交易提交後處理
+ */
+public record OrderPlacedEvent(OrderResponse order) {
+}
@@ -0,0 +1,8 @@
+package com.breakfast.pos.event;
+
+/**
+ * 使用者啟用狀態或 token 版本變更事件，於更新交易內發佈
+ * 監聽者應使用 @TransactionalEventListener，僅在交易提交後處理
+ */
+public record UserChangedEvent(String username) {
+}
@@ -2,6 +2,7 @@ package com.breakfast.pos.exception;
 
 import com.breakfast.pos.common.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -44,6 +45,12 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(ex.getMessage());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiResponse<Void> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ApiResponse.error("Resource was modified concurrently, please reload and retry");
+    }
+
     @ExceptionHandler({BadCredentialsException.class, AuthenticationException.class})
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ApiResponse<Void> handleAuthenticationException(Exception ex) {
@@ -18,6 +18,6 @@ public interface OrderMapper {
     @Mapping(target = "type", expression = "java(entity.getType().name())")
     OrderResponse toResponse(Order entity);
 
-    @Mapping(source = "product.name", target = "productName")
+    // 使用下單時寫入的冗餘欄位 productName，不經由 LAZY 的 product 關聯載入商品
     OrderItemResponse toItemResponse(OrderItem entity);
 }
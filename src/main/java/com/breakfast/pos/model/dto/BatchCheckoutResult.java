@@ -0,0 +1,32 @@
+package com.breakfast.pos.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 批次結帳單筆結果 (NDJSON 逐行回傳)
+ * index 對應上傳內容中的訂單順序 (從 0 開始)
+ */
+public record BatchCheckoutResult(
+        int index,
+        String idempotencyKey,
+        Status status,
+        Long orderId,
+        BigDecimal totalAmount,
+        String error) {
+
+    public enum Status {
+        CREATED, DUPLICATE, FAILED
+    }
+
+    public static BatchCheckoutResult created(int index, String idempotencyKey, OrderResponse order) {
+        return new BatchCheckoutResult(index, idempotencyKey, Status.CREATED, order.id(), order.totalAmount(), null);
+    }
+
+    public static BatchCheckoutResult duplicate(int index, String idempotencyKey, Long orderId, BigDecimal totalAmount) {
+        return new BatchCheckoutResult(index, idempotencyKey, Status.DUPLICATE, orderId, totalAmount, null);
+    }
+
+    public static BatchCheckoutResult failed(int index, String idempotencyKey, String error) {
+        return new BatchCheckoutResult(index, idempotencyKey, Status.FAILED, null, null, error);
+    }
+}
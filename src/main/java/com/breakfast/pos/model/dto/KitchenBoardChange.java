@@ -0,0 +1,16 @@
+package com.breakfast.pos.model.dto;
+
+/**
+ * 廚房看板差異推播
+ * UPSERT：訂單新增或換欄 (依 order.status)；REMOVE：訂單離開看板 (已出餐、完成或取消)
+ */
+public record KitchenBoardChange(
+        long version,
+        Action action,
+        Long orderId,
+        OrderResponse order) {
+
+    public enum Action {
+        UPSERT, REMOVE
+    }
+}
@@ -0,0 +1,13 @@
+package com.breakfast.pos.model.dto;
+
+import java.util.List;
+
+/**
+ * 廚房看板快照：依狀態分欄，每欄依訂單 id (下單先後) 排序
+ * version 可作為訂閱 /api/kitchen/stream 時的 Last-Event-ID
+ */
+public record KitchenBoardResponse(
+        long version,
+        List<OrderResponse> pending,
+        List<OrderResponse> preparing) {
+}
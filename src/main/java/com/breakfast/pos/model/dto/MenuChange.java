@@ -0,0 +1,15 @@
+package com.breakfast.pos.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 菜單異動推播內容 (精簡版，只含平板需要更新的欄位)
+ * removed 為 true 時商品已刪除，available 與 price 不具意義
+ */
+public record MenuChange(
+        long version,
+        Long productId,
+        boolean available,
+        BigDecimal price,
+        boolean removed) {
+}
@@ -0,0 +1,14 @@
+package com.breakfast.pos.model.dto;
+
+import java.util.List;
+
+/**
+ * 菜單差異同步回應
+ * full 為 true 時 upserts 為完整菜單，客戶端應以其取代本地資料
+ */
+public record MenuDeltaResponse(
+        long version,
+        boolean full,
+        List<ProductResponse> upserts,
+        List<Long> deletes) {
+}
@@ -0,0 +1,13 @@
+package com.breakfast.pos.model.dto;
+
+import java.util.List;
+
+/**
+ * Keyset 分頁結果
+ * nextCursor 為 null 表示已無下一頁；estimatedTotal 只在要求時提供 (取自資料表統計資訊的估計值)
+ */
+public record OrderCursorPage(
+        List<OrderResponse> orders,
+        String nextCursor,
+        Long estimatedTotal) {
+}
@@ -0,0 +1,29 @@
+package com.breakfast.pos.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 訂單明細臨時分析請求
+ * 日期含起訖日；時段為 [hourFrom, hourTo) 整點區間；
+ * groupBy 可為 PRODUCT / TYPE / DATE / HOUR / WEEKDAY，省略時回傳總計
+ */
+public record OrderLineQueryRequest(
+        @NotNull(message = "起始日期不能為空") LocalDate from,
+
+        @NotNull(message = "結束日期不能為空") LocalDate to,
+
+        List<String> products,
+
+        String type,
+
+        Integer hourFrom,
+
+        Integer hourTo,
+
+        List<String> groupBy,
+
+        Integer limit) {
+}
@@ -0,0 +1,24 @@
+package com.breakfast.pos.model.dto;
+
+/**
+ * 批次狀態更新的單筆結果
+ * status / version 為處理後訂單目前的狀態與版本 (NOT_FOUND 時為 null)
+ */
+public record OrderStatusUpdateResult(
+        Long orderId,
+        Outcome outcome,
+        String status,
+        Long version) {
+
+    public enum Outcome {
+        /** 已轉換為目標狀態 */
+        UPDATED,
+        /** 原本就是目標狀態 */
+        UNCHANGED,
+        /** 目前狀態不允許轉換為目標狀態 */
+        REJECTED,
+        /** 處理期間被其他請求修改，轉換未套用 */
+        CONFLICT,
+        NOT_FOUND
+    }
+}
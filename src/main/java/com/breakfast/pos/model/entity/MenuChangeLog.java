@@ -0,0 +1,45 @@
+package com.breakfast.pos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 菜單異動紀錄
+ * 每筆異動對應一個遞增的菜單版本，供差異同步 (GET /api/menu/changes) 查詢
+ */
+@Entity
+@Table(name = "menu_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MenuChangeLog {
+
+    @Id
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public enum EntityType {
+        PRODUCT
+    }
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+}
@@ -2,11 +2,17 @@ package com.breakfast.pos.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.PartitionKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders", uniqueConstraints = {
@@ -20,7 +26,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -36,8 +43,18 @@ public class Order {
     @Column(name = "idempotency_key", unique = true)
     private String idempotencyKey;
 
+    /**
+     * 分割鍵；Entity 的 UPDATE / DELETE 一併帶入，PostgreSQL 只需探查所屬月份的分割區
+     */
+    @PartitionKey
     private LocalDateTime createdAt;
 
+    /**
+     * 樂觀鎖版本；批次狀態更新以集合式 UPDATE 一併遞增，與單筆 Entity 更新互相偵測衝突
+     */
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
@@ -47,10 +64,46 @@ public class Order {
         createdAt = LocalDateTime.now();
         if (status == null)
             status = OrderStatus.PENDING;
+        // 明細與訂單以相同的 created_at 落在同一個分割區
+        items.forEach(item -> item.setOrderCreatedAt(createdAt));
     }
 
+    /**
+     * 訂單狀態與允許的轉換：只能往後推進，COMPLETED / CANCELLED 為終止狀態
+     */
     public enum OrderStatus {
-        PENDING, PREPARING, SERVED, COMPLETED, CANCELLED
+        PENDING, PREPARING, SERVED, COMPLETED, CANCELLED;
+
+        private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+        private static final Map<OrderStatus, Set<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(PREPARING, SERVED, COMPLETED, CANCELLED));
+            TRANSITIONS.put(PREPARING, EnumSet.of(SERVED, COMPLETED, CANCELLED));
+            TRANSITIONS.put(SERVED, EnumSet.of(COMPLETED));
+            TRANSITIONS.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+            TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+            for (OrderStatus target : values()) {
+                EnumSet<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+                TRANSITIONS.forEach((source, targets) -> {
+                    if (targets.contains(target)) {
+                        sources.add(source);
+                    }
+                });
+                SOURCES.put(target, Collections.unmodifiableSet(sources));
+            }
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return TRANSITIONS.get(this).contains(target);
+        }
+
+        /**
+         * 可以轉換到此狀態的來源狀態，供集合式 UPDATE 的 WHERE 條件使用
+         */
+        public Set<OrderStatus> allowedSources() {
+            return SOURCES.get(this);
+        }
     }
 
     public enum OrderType {
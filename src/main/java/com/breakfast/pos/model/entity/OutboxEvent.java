@@ -0,0 +1,73 @@
+package com.breakfast.pos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional Outbox 事件
+ * 與訂單於同一交易寫入，提交後由 OutboxDispatcher 依 channel 順序派送
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Channel channel;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    /**
+     * 訂單的建立時間 (分割鍵)，派送時以 (order_id, order_created_at) 讀取訂單；V18 之前的事件為 null
+     */
+    @Column(name = "order_created_at")
+    private LocalDateTime orderCreatedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null)
+            nextAttemptAt = createdAt;
+    }
+
+    public enum Channel {
+        PRINT, LINE
+    }
+
+    public enum Status {
+        PENDING, DONE, FAILED
+    }
+}
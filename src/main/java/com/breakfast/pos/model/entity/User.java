@@ -38,6 +38,10 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean active = true;
 
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private int tokenVersion = 0; // JWT 內帶此版本，遞增即撤銷先前簽發的 token
+
     @Column(name = "last_login_at")
     private LocalDateTime lastLoginAt;
 
@@ -0,0 +1,22 @@
+package com.breakfast.pos.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單匯出的一列：一筆訂單明細攤平成一列 (沒有明細的訂單 item 欄位為 null)
+ */
+public record OrderExportLine(
+        Long orderId,
+        LocalDateTime createdAt,
+        String status,
+        String type,
+        String tableNumber,
+        BigDecimal orderTotal,
+        Long itemId,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        String modifiers,
+        BigDecimal subtotal) {
+}
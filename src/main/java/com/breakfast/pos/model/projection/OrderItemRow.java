@@ -0,0 +1,22 @@
+package com.breakfast.pos.model.projection;
+
+import com.breakfast.pos.model.dto.OrderItemResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * 訂單明細查詢投影，商品名稱取自冗餘欄位 product_name，不載入 Product
+ */
+public record OrderItemRow(
+        Long orderId,
+        Long id,
+        String productName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        String modifiers,
+        BigDecimal subtotal) {
+
+    public OrderItemResponse toResponse() {
+        return new OrderItemResponse(id, productName, quantity, unitPrice, modifiers, subtotal);
+    }
+}
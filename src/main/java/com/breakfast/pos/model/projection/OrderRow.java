@@ -0,0 +1,25 @@
+package com.breakfast.pos.model.projection;
+
+import com.breakfast.pos.model.dto.OrderItemResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 訂單查詢投影 (JPQL constructor expression)，不經過持久化內容
+ */
+public record OrderRow(
+        Long id,
+        Order.OrderStatus status,
+        Order.OrderType type,
+        String tableNumber,
+        BigDecimal totalAmount,
+        LocalDateTime createdAt) {
+
+    public OrderResponse toResponse(List<OrderItemResponse> items) {
+        return new OrderResponse(id, status.name(), type.name(), tableNumber, totalAmount, createdAt, items);
+    }
+}
@@ -0,0 +1,16 @@
+package com.breakfast.pos.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 未取消訂單的一筆明細 (記憶體分析載入用)
+ */
+public record OrderSalesLine(
+        long orderId,
+        LocalDateTime createdAt,
+        String type,
+        String productName,
+        int quantity,
+        BigDecimal subtotal) {
+}
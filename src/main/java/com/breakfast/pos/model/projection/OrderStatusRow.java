@@ -0,0 +1,16 @@
+package com.breakfast.pos.model.projection;
+
+import com.breakfast.pos.model.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * 訂單狀態與樂觀鎖版本投影，供狀態更新前後比對
+ * createdAt 為分割鍵，後續的更新與查詢帶入以限縮到單一分割區
+ */
+public record OrderStatusRow(
+        Long id,
+        Order.OrderStatus status,
+        Long version,
+        LocalDateTime createdAt) {
+}
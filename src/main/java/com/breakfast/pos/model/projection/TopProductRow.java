@@ -0,0 +1,12 @@
+package com.breakfast.pos.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 熱銷商品彙總投影 (JPQL constructor expression)
+ */
+public record TopProductRow(
+        String productName,
+        Long totalSold,
+        BigDecimal totalRevenue) {
+}
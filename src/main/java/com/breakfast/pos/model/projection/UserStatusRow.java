@@ -0,0 +1,9 @@
+package com.breakfast.pos.model.projection;
+
+/**
+ * 使用者啟用狀態與 token 版本投影，供 JWT 驗證時比對
+ */
+public record UserStatusRow(
+        boolean active,
+        int tokenVersion) {
+}
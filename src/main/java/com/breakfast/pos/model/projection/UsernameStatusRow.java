@@ -0,0 +1,14 @@
+package com.breakfast.pos.model.projection;
+
+/**
+ * 帶使用者名稱的啟用狀態與 token 版本投影，供快取批次比對資料庫的目前狀態
+ */
+public record UsernameStatusRow(
+        String username,
+        boolean active,
+        int tokenVersion) {
+
+    public UserStatusRow status() {
+        return new UserStatusRow(active, tokenVersion);
+    }
+}
@@ -0,0 +1,104 @@
+package com.breakfast.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * daily_sales 彙總表 (見 V13__create_daily_sales.sql)
+ * 累加採方言專屬的 upsert：PostgreSQL 用 ON CONFLICT (並行首筆寫入不會撞唯一鍵)，H2 用 MERGE
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailySalesRepository {
+
+    private static final String POSTGRESQL_UPSERT =
+            "INSERT INTO daily_sales (sales_date, order_type, revenue, order_count, item_count) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sales_date, order_type) DO UPDATE SET " +
+            "revenue = daily_sales.revenue + EXCLUDED.revenue, " +
+            "order_count = daily_sales.order_count + EXCLUDED.order_count, " +
+            "item_count = daily_sales.item_count + EXCLUDED.item_count";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO daily_sales d " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(50)), CAST(? AS NUMERIC(14, 2)), " +
+            "CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s (sales_date, order_type, revenue, order_count, item_count) " +
+            "ON d.sales_date = s.sales_date AND d.order_type = s.order_type " +
+            "WHEN MATCHED THEN UPDATE SET revenue = d.revenue + s.revenue, " +
+            "order_count = d.order_count + s.order_count, item_count = d.item_count + s.item_count " +
+            "WHEN NOT MATCHED THEN INSERT (sales_date, order_type, revenue, order_count, item_count) " +
+            "VALUES (s.sales_date, s.order_type, s.revenue, s.order_count, s.item_count)";
+
+    private static final String REBUILD_INSERT =
+            "INSERT INTO daily_sales (sales_date, order_type, revenue, order_count, item_count) " +
+            "SELECT CAST(o.created_at AS DATE), o.type, SUM(o.total_amount), COUNT(*), COALESCE(SUM(i.items), 0) " +
+            "FROM orders o " +
+            "LEFT JOIN (SELECT order_id, order_created_at, SUM(quantity) AS items FROM order_items " +
+            "WHERE order_created_at >= ? AND order_created_at < ? GROUP BY order_id, order_created_at) i " +
+            "ON i.order_id = o.id AND i.order_created_at = o.created_at " +
+            "WHERE o.created_at >= ? AND o.created_at < ? AND o.status <> 'CANCELLED' " +
+            "GROUP BY CAST(o.created_at AS DATE), o.type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+
+    /**
+     * 累加一組 (日期, 訂單類型) 的增量，取消訂單時傳入負值
+     */
+    public void addDelta(LocalDate salesDate, String orderType, BigDecimal revenue, long orderCount, long itemCount) {
+        jdbcTemplate.update(databaseVendor.isPostgreSql() ? POSTGRESQL_UPSERT : MERGE_UPSERT,
+                Date.valueOf(salesDate), orderType, revenue, orderCount, itemCount);
+    }
+
+    /**
+     * 區間內 (含起訖日) 各日營收，沒有訂單的日期不會出現在結果中
+     */
+    public List<DailyRevenue> findRevenueBetween(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT sales_date, SUM(revenue) FROM daily_sales WHERE sales_date BETWEEN ? AND ? " +
+                "GROUP BY sales_date ORDER BY sales_date",
+                (rs, rowNum) -> new DailyRevenue(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * 單日所有訂單類型合計的營收與訂單數
+     */
+    public DayTotals findDayTotals(LocalDate salesDate) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(revenue), 0), COALESCE(SUM(order_count), 0) FROM daily_sales WHERE sales_date = ?",
+                (rs, rowNum) -> new DayTotals(rs.getBigDecimal(1), rs.getLong(2)),
+                Date.valueOf(salesDate));
+    }
+
+    /**
+     * 由 orders / order_items 重新計算區間內 (含起訖日) 的彙總，需在交易內呼叫
+     * PostgreSQL 先以 EXCLUSIVE 鎖住彙總表：進行中的下單交易提交後才開始重算，
+     * 重算期間的下單則等重算提交後再累加，兩者都不會重複或遺漏
+     *
+     * @return 重建的彙總列數
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (databaseVendor.isPostgreSql()) {
+            jdbcTemplate.execute("LOCK TABLE daily_sales IN EXCLUSIVE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM daily_sales WHERE sales_date BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(REBUILD_INSERT, start, end, start, end);
+    }
+
+    public record DailyRevenue(LocalDate salesDate, BigDecimal revenue) {
+    }
+
+    public record DayTotals(BigDecimal revenue, long orderCount) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.breakfast.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Locale;
+
+/**
+ * 目前連線的資料庫種類 (小寫，例如 postgresql、h2)，供需要方言專屬 SQL 的 JDBC repository 使用
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseVendor {
+
+    public static final String POSTGRESQL = "postgresql";
+    public static final String H2 = "h2";
+
+    private final DataSource dataSource;
+    private volatile String name;
+
+    /**
+     * 讀取失敗時回傳空字串 (不快取，下次重試)
+     */
+    public String name() {
+        String value = name;
+        if (value == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                value = String.valueOf(JdbcUtils.commonDatabaseName(product)).toLowerCase(Locale.ROOT);
+                name = value;
+            } catch (MetaDataAccessException e) {
+                log.warn("Failed to read database product name: {}", e.getMessage());
+                return "";
+            }
+        }
+        return value;
+    }
+
+    public boolean isPostgreSql() {
+        return POSTGRESQL.equals(name());
+    }
+}
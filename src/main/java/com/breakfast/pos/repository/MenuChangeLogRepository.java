@@ -0,0 +1,43 @@
+package com.breakfast.pos.repository;
+
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MenuChangeLogRepository extends JpaRepository<MenuChangeLog, Long> {
+
+    /**
+     * 遞增菜單版本；該列的鎖持有至交易結束，菜單異動因此依版本順序提交
+     */
+    @Modifying
+    @Query(value = "UPDATE menu_version SET version = version + 1 WHERE id = 1", nativeQuery = true)
+    int incrementVersion();
+
+    @Query(value = "SELECT version FROM menu_version WHERE id = 1", nativeQuery = true)
+    long currentVersion();
+
+    @Modifying
+    @Query(value = "INSERT INTO menu_changes (version, entity_type, entity_id, operation, changed_at) " +
+                   "VALUES (:version, :entityType, :entityId, :operation, :changedAt)", nativeQuery = true)
+    int insert(@Param("version") long version,
+               @Param("entityType") String entityType,
+               @Param("entityId") long entityId,
+               @Param("operation") String operation,
+               @Param("changedAt") LocalDateTime changedAt);
+
+    List<MenuChangeLog> findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(long after, long upTo);
+
+    @Query("SELECT MIN(c.version) FROM MenuChangeLog c")
+    Long findOldestVersion();
+
+    @Modifying
+    @Query("DELETE FROM MenuChangeLog c WHERE c.version <= :version")
+    int deleteUpTo(@Param("version") long version);
+}
@@ -0,0 +1,120 @@
+package com.breakfast.pos.repository;
+
+import com.breakfast.pos.model.projection.OrderExportLine;
+import com.breakfast.pos.model.projection.OrderSalesLine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 訂單匯出與記憶體分析載入：以 forward-only 游標逐列讀取，不建立 Entity
+ * PostgreSQL 只有在交易內 (autocommit 關閉) 才會依 fetch size 分批取回，呼叫端需開啟交易
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.created_at, o.status, o.type, o.table_number, o.total_amount, " +
+            "oi.id, oi.product_name, oi.quantity, oi.unit_price, oi.modifiers, oi.subtotal " +
+            "FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.id AND oi.order_created_at = o.created_at " +
+            "WHERE o.created_at >= ? AND o.created_at < ? " +
+            "ORDER BY o.created_at, o.id, oi.id";
+
+    private static final String SALES_LINES_SQL =
+            "SELECT o.id, o.created_at, o.type, oi.product_name, oi.quantity, oi.subtotal " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id AND o.created_at = oi.order_created_at " +
+            "WHERE oi.order_created_at >= ? AND o.created_at >= ? AND o.status <> 'CANCELLED' " +
+            "ORDER BY o.created_at, o.id, oi.id";
+
+    private static final String CANCELLED_SQL =
+            "SELECT id, created_at, cancelled_at FROM orders WHERE cancelled_at >= ? ORDER BY cancelled_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public OrderExportRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.orders.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 依建立時間 [start, end) 逐列回呼，記憶體用量只與 fetch size 有關
+     */
+    public void streamLines(LocalDateTime start, LocalDateTime end, Consumer<OrderExportLine> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(start));
+            ps.setTimestamp(2, Timestamp.valueOf(end));
+            return ps;
+        }, (ResultSet rs) -> consumer.accept(mapLine(rs)));
+    }
+
+    /**
+     * 建立時間不早於 start 的未取消訂單明細，依建立時間逐列回呼
+     */
+    public void streamSalesLines(LocalDateTime start, Consumer<OrderSalesLine> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SALES_LINES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(start));
+            ps.setTimestamp(2, Timestamp.valueOf(start));
+            return ps;
+        }, (ResultSet rs) -> consumer.accept(new OrderSalesLine(
+                rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getInt(5),
+                rs.getBigDecimal(6))));
+    }
+
+    /**
+     * 取消時間不早於 since 的訂單 (依取消時間排序)
+     */
+    public List<CancelledOrder> findCancelledSince(LocalDateTime since) {
+        return jdbcTemplate.query(CANCELLED_SQL, (rs, rowNum) -> new CancelledOrder(
+                rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getTimestamp(3).toLocalDateTime()), Timestamp.valueOf(since));
+    }
+
+    public Optional<LocalDateTime> findLatestCancelledAt() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(cancelled_at) FROM orders", Timestamp.class);
+        return Optional.ofNullable(latest).map(Timestamp::toLocalDateTime);
+    }
+
+    private static OrderExportLine mapLine(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(2);
+        long itemId = rs.getLong(7);
+        boolean hasItem = !rs.wasNull();
+        return new OrderExportLine(
+                rs.getLong(1),
+                createdAt == null ? null : createdAt.toLocalDateTime(),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getBigDecimal(6),
+                hasItem ? itemId : null,
+                rs.getString(8),
+                hasItem ? rs.getInt(9) : null,
+                rs.getBigDecimal(10),
+                rs.getString(11),
+                rs.getBigDecimal(12));
+    }
+
+    public record CancelledOrder(long orderId, LocalDateTime createdAt, LocalDateTime cancelledAt) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.breakfast.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * orders / order_items 按月分割區的 DDL 操作 (僅 PostgreSQL，見 V12__partition_orders_by_month.sql)
+ * 分割區名稱固定為 {table}_pYYYYMM，由 YearMonth 產生，不接受外部輸入
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPartitionRepository {
+
+    static final String ARCHIVE_SCHEMA = "archive";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern ORDERS_PARTITION = Pattern.compile("orders_p(\\d{6})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+    private volatile Boolean partitioned;
+
+    /**
+     * orders 是否為分割表 (H2 開發環境與尚未執行 V12 的資料庫皆為 false)
+     */
+    public boolean isPartitioned() {
+        Boolean value = partitioned;
+        if (value == null) {
+            value = detectPartitioning();
+            partitioned = value;
+        }
+        return value;
+    }
+
+    /**
+     * 目前掛在 orders 底下的月份分割區 (不含 DEFAULT)
+     */
+    public List<YearMonth> findAttachedMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass('orders')", String.class).stream()
+                .map(ORDERS_PARTITION::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.parse(matcher.group(1), SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * 建立指定月份的訂單與明細分割區 (已存在則略過)
+     */
+    public void createMonth(YearMonth month) {
+        String suffix = month.format(SUFFIX);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_p" + suffix +
+                " PARTITION OF orders FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items_p" + suffix +
+                " PARTITION OF order_items FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * 將指定月份的分割區自分割表卸離並移到 archive schema，需在交易內呼叫
+     * 先卸離明細並移除其外鍵，訂單分割區才不會被仍參照它的明細擋下
+     */
+    public void archiveMonth(YearMonth month) {
+        String suffix = month.format(SUFFIX);
+        String items = "order_items_p" + suffix;
+        String orders = "orders_p" + suffix;
+
+        jdbcTemplate.execute("ALTER TABLE order_items DETACH PARTITION " + items);
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                String.class, items);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + items + " DROP CONSTRAINT \"" + foreignKey.replace("\"", "\"\"") + "\"");
+        }
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + orders);
+        jdbcTemplate.execute("ALTER TABLE " + items + " SET SCHEMA " + ARCHIVE_SCHEMA);
+        jdbcTemplate.execute("ALTER TABLE " + orders + " SET SCHEMA " + ARCHIVE_SCHEMA);
+
+        // 只釋放本月份訂單的 key，較早月份的分割區可能尚未封存
+        int keys = jdbcTemplate.update(
+                "DELETE FROM order_idempotency_keys WHERE created_at >= ? AND created_at < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        log.info("Archived partitions {} / {} ({} idempotency key(s) released)", orders, items, keys);
+    }
+
+    private boolean detectPartitioning() {
+        if (!databaseVendor.isPostgreSql()) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('orders'))",
+                    Boolean.class));
+        } catch (DataAccessException e) {
+            log.warn("Failed to detect orders partitioning: {}", e.getMessage());
+            return false;
+        }
+    }
+}
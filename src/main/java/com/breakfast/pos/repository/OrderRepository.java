@@ -1,6 +1,12 @@
 package com.breakfast.pos.repository;
 
 import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.OrderItemRow;
+import com.breakfast.pos.model.projection.OrderRow;
+import com.breakfast.pos.model.projection.OrderStatusRow;
+import com.breakfast.pos.model.projection.TopProductRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +23,75 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     java.util.Optional<Order> findByIdempotencyKey(String idempotencyKey);
 
+    List<Order> findByIdempotencyKeyIn(java.util.Collection<String> idempotencyKeys);
+
+    @EntityGraph(attributePaths = "items")
+    java.util.Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * 依 (id, created_at) 載入訂單與明細；兩個條件都帶上分割鍵，PostgreSQL 只掃描該月份的分割區
+     * 同一訂單的明細 order_created_at 皆等於訂單的 created_at，加上條件不會漏掉明細
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items i " +
+           "WHERE o.id = :id AND o.createdAt = :createdAt AND (i.id IS NULL OR i.orderCreatedAt = :createdAt)")
+    java.util.Optional<Order> findWithItemsByIdAndCreatedAt(@Param("id") Long id,
+                                                            @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 管理端讀取模型：訂單與明細各以一個集合查詢取得 DTO 投影，不載入 Entity
+     * Keyset 分頁依 (createdAt DESC, id DESC)，走 idx_orders_created_at_id 索引
+     * 明細查詢帶上訂單建立時間的範圍，PostgreSQL 分割表只掃描涵蓋的月份
+     */
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderRow(" +
+           "o.id, o.status, o.type, o.tableNumber, o.totalAmount, o.createdAt) " +
+           "FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findLatestRows(Limit limit);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderRow(" +
+           "o.id, o.status, o.type, o.tableNumber, o.totalAmount, o.createdAt) " +
+           "FROM Order o " +
+           "WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderRow> findRowsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderRow(" +
+           "o.id, o.status, o.type, o.tableNumber, o.totalAmount, o.createdAt) " +
+           "FROM Order o WHERE o.id = :id")
+    java.util.Optional<OrderRow> findRowById(@Param("id") Long id);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderRow(" +
+           "o.id, o.status, o.type, o.tableNumber, o.totalAmount, o.createdAt) " +
+           "FROM Order o WHERE o.status IN :statuses ORDER BY o.id")
+    List<OrderRow> findRowsByStatusIn(@Param("statuses") java.util.Collection<Order.OrderStatus> statuses);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderItemRow(" +
+           "oi.order.id, oi.id, oi.productName, oi.quantity, oi.unitPrice, oi.modifiers, oi.subtotal) " +
+           "FROM OrderItem oi WHERE oi.order.id IN :orderIds " +
+           "AND oi.orderCreatedAt BETWEEN :from AND :to ORDER BY oi.id")
+    List<OrderItemRow> findItemRowsByOrderIdIn(@Param("orderIds") java.util.Collection<Long> orderIds,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    /**
+     * 呼叫端只有訂單 id 時的第一次讀取，無法限縮分割區；之後的更新與查詢改帶讀到的 createdAt
+     */
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderStatusRow(o.id, o.status, o.version, o.createdAt) " +
+           "FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusRow> findStatusRowsByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderStatusRow(o.id, o.status, o.version, o.createdAt) " +
+           "FROM Order o WHERE o.id IN :ids AND o.createdAt BETWEEN :from AND :to")
+    List<OrderStatusRow> findStatusRowsByIdIn(@Param("ids") java.util.Collection<Long> ids,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.OrderRow(" +
+           "o.id, o.status, o.type, o.tableNumber, o.totalAmount, o.createdAt) " +
+           "FROM Order o WHERE o.id IN :ids AND o.createdAt BETWEEN :from AND :to ORDER BY o.id")
+    List<OrderRow> findRowsByIdIn(@Param("ids") java.util.Collection<Long> ids,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.createdAt BETWEEN :start AND :end")
@@ -25,9 +100,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :start AND :end")
     long countByCreatedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @Query("SELECT oi.productName, SUM(oi.quantity), SUM(oi.subtotal) " +
-           "FROM OrderItem oi " +
+    /**
+     * 熱銷排行：排序與筆數限制都在資料庫完成，只回傳前 limit 名
+     */
+    @Query("SELECT new com.breakfast.pos.model.projection.TopProductRow(" +
+           "oi.productName, SUM(oi.quantity), SUM(oi.subtotal)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.status <> :excludedStatus " +
+           "GROUP BY oi.productName " +
+           "ORDER BY SUM(oi.quantity) DESC")
+    List<TopProductRow> findTopSellingProducts(@Param("excludedStatus") Order.OrderStatus excludedStatus, Limit limit);
+
+    /**
+     * 指定時間之後的熱銷排行；以明細的 order_created_at 限定範圍 (索引 / 分割區裁剪)
+     */
+    @Query("SELECT new com.breakfast.pos.model.projection.TopProductRow(" +
+           "oi.productName, SUM(oi.quantity), SUM(oi.subtotal)) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE oi.orderCreatedAt >= :from AND o.createdAt >= :from AND o.createdAt = oi.orderCreatedAt " +
+           "AND o.status <> :excludedStatus " +
            "GROUP BY oi.productName " +
            "ORDER BY SUM(oi.quantity) DESC")
-    List<Object[]> findTopSellingProducts();
+    List<TopProductRow> findTopSellingProductsSince(@Param("from") LocalDateTime from,
+                                                    @Param("excludedStatus") Order.OrderStatus excludedStatus,
+                                                    Limit limit);
 }
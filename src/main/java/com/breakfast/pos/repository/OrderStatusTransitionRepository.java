@@ -0,0 +1,40 @@
+package com.breakfast.pos.repository;
+
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.OrderStatusRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 批次狀態轉換：每筆訂單以先前讀到的版本作為條件，在一次 JDBC 批次內送出
+ * 讀取後若有並行的變更，該筆版本已不同而不會被更新；同時帶上讀到的 created_at (分割鍵)，
+ * PostgreSQL 只需探查該訂單所在月份的分割區；轉換為 CANCELLED 時一併記錄 cancelled_at
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderStatusTransitionRepository {
+
+    private static final String TRANSITION =
+            "UPDATE orders SET status = ?, version = version + 1, " +
+            "cancelled_at = CASE WHEN ? THEN LOCALTIMESTAMP ELSE cancelled_at END " +
+            "WHERE id = ? AND created_at = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return 與 expected 同順序的各筆更新列數，1 表示本次轉換成功、0 表示版本已變更
+     */
+    public int[] transition(List<OrderStatusRow> expected, Order.OrderStatus target) {
+        if (expected.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(TRANSITION, expected.stream()
+                .map(row -> new Object[]{target.name(), target == Order.OrderStatus.CANCELLED, row.id(),
+                        Timestamp.valueOf(row.createdAt()), row.version()})
+                .toList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.breakfast.pos.repository;
+
+import com.breakfast.pos.model.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByChannelAndStatusOrderByIdAsc(OutboxEvent.Channel channel, OutboxEvent.Status status,
+            Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.processedAt = :processedAt, " +
+           "e.lastError = :lastError WHERE e.id = :id")
+    int markFinished(@Param("id") Long id,
+                     @Param("status") OutboxEvent.Status status,
+                     @Param("attempts") int attempts,
+                     @Param("processedAt") LocalDateTime processedAt,
+                     @Param("lastError") String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :lastError WHERE e.id = :id")
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+}
@@ -0,0 +1,44 @@
+package com.breakfast.pos.repository;
+
+import com.breakfast.pos.model.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * outbox channel 租約 (見 V20__create_outbox_channel_leases.sql)
+ * 以單一條件式 UPDATE 取得或續約，並行的節點只有一個會更新到該列
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxLeaseRepository {
+
+    private static final String ACQUIRE =
+            "UPDATE outbox_channel_leases SET owner = ?, lease_until = ? " +
+            "WHERE channel = ? AND (owner = ? OR lease_until < ?)";
+
+    private static final String RELEASE =
+            "UPDATE outbox_channel_leases SET lease_until = ? WHERE channel = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 租約無人持有、已逾期或由 owner 持有時取得 (續約) 並回傳 true
+     */
+    public boolean tryAcquire(OutboxEvent.Channel channel, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(ACQUIRE, owner, Timestamp.valueOf(now.plus(lease)), channel.name(), owner,
+                Timestamp.valueOf(now)) == 1;
+    }
+
+    /**
+     * 立即讓出租約；已被其他節點接手時不影響對方
+     */
+    public void release(OutboxEvent.Channel channel, String owner) {
+        jdbcTemplate.update(RELEASE, Timestamp.valueOf(LocalDateTime.now()), channel.name(), owner);
+    }
+}
@@ -1,10 +1,24 @@
 package com.breakfast.pos.repository;
 
 import com.breakfast.pos.model.entity.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByName(String name);
     long countByAvailableFalse();
+
+    // ProductMapper 會讀取 category.name，一併載入分類避免 N+1 查詢
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
 }
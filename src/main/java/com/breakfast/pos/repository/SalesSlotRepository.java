@@ -0,0 +1,109 @@
+package com.breakfast.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * sales_by_slot 彙總表 (見 V15__create_sales_by_slot.sql)
+ * 與 DailySalesRepository 相同，PostgreSQL 以 ON CONFLICT、H2 以 MERGE 累加
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesSlotRepository {
+
+    private static final String POSTGRESQL_UPSERT =
+            "INSERT INTO sales_by_slot (sales_date, slot_of_day, product_name, order_type, quantity, revenue) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sales_date, slot_of_day, product_name, order_type) DO UPDATE SET " +
+            "quantity = sales_by_slot.quantity + EXCLUDED.quantity, " +
+            "revenue = sales_by_slot.revenue + EXCLUDED.revenue";
+
+    private static final String MERGE_UPSERT =
+            "MERGE INTO sales_by_slot t " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS SMALLINT), CAST(? AS VARCHAR(200)), CAST(? AS VARCHAR(50)), " +
+            "CAST(? AS BIGINT), CAST(? AS NUMERIC(14, 2)))) " +
+            "AS s (sales_date, slot_of_day, product_name, order_type, quantity, revenue) " +
+            "ON t.sales_date = s.sales_date AND t.slot_of_day = s.slot_of_day " +
+            "AND t.product_name = s.product_name AND t.order_type = s.order_type " +
+            "WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, revenue = t.revenue + s.revenue " +
+            "WHEN NOT MATCHED THEN INSERT (sales_date, slot_of_day, product_name, order_type, quantity, revenue) " +
+            "VALUES (s.sales_date, s.slot_of_day, s.product_name, s.order_type, s.quantity, s.revenue)";
+
+    private static final String SLOT_OF_DAY =
+            "CAST(EXTRACT(HOUR FROM o.created_at) * 4 + FLOOR(EXTRACT(MINUTE FROM o.created_at) / 15) AS SMALLINT)";
+
+    private static final String REBUILD_INSERT =
+            "INSERT INTO sales_by_slot (sales_date, slot_of_day, product_name, order_type, quantity, revenue) " +
+            "SELECT CAST(o.created_at AS DATE), " + SLOT_OF_DAY + ", oi.product_name, o.type, " +
+            "SUM(oi.quantity), SUM(oi.subtotal) " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id AND o.created_at = oi.order_created_at " +
+            "WHERE oi.order_created_at >= ? AND oi.order_created_at < ? " +
+            "AND o.created_at >= ? AND o.created_at < ? AND o.status <> 'CANCELLED' " +
+            "GROUP BY CAST(o.created_at AS DATE), " + SLOT_OF_DAY + ", oi.product_name, o.type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+
+    /**
+     * 以一次 JDBC 批次累加多組增量，呼叫端需先依主鍵排序以固定鎖定順序
+     */
+    public void addDeltas(List<SlotDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(databaseVendor.isPostgreSql() ? POSTGRESQL_UPSERT : MERGE_UPSERT, deltas, deltas.size(),
+                (ps, delta) -> {
+                    ps.setDate(1, Date.valueOf(delta.salesDate()));
+                    ps.setInt(2, delta.slotOfDay());
+                    ps.setString(3, delta.productName());
+                    ps.setString(4, delta.orderType());
+                    ps.setLong(5, delta.quantity());
+                    ps.setBigDecimal(6, delta.revenue());
+                });
+    }
+
+    /**
+     * 區間內 (含起訖日) 依日期、時段群組 (每 slotsPerBucket 個 15 分鐘時段合併) 與商品加總
+     */
+    public List<SlotSales> findBetween(LocalDate from, LocalDate to, int slotsPerBucket) {
+        return jdbcTemplate.query(
+                "SELECT sales_date, bucket, product_name, SUM(quantity), SUM(revenue) FROM (" +
+                "SELECT sales_date, slot_of_day / ? AS bucket, product_name, quantity, revenue " +
+                "FROM sales_by_slot WHERE sales_date BETWEEN ? AND ?) s " +
+                "GROUP BY sales_date, bucket, product_name",
+                (rs, rowNum) -> new SlotSales(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getString(3),
+                        rs.getLong(4), rs.getBigDecimal(5)),
+                slotsPerBucket, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * 由 orders / order_items 重新計算區間內 (含起訖日) 的彙總，需在交易內呼叫
+     * 與 DailySalesRepository#rebuild 相同，PostgreSQL 先鎖表避免與進行中的下單重複或遺漏
+     *
+     * @return 重建的彙總列數
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (databaseVendor.isPostgreSql()) {
+            jdbcTemplate.execute("LOCK TABLE sales_by_slot IN EXCLUSIVE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM sales_by_slot WHERE sales_date BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(REBUILD_INSERT, start, end, start, end);
+    }
+
+    public record SlotDelta(LocalDate salesDate, int slotOfDay, String productName, String orderType,
+                            long quantity, BigDecimal revenue) {
+    }
+
+    public record SlotSales(LocalDate salesDate, int bucket, String productName, long quantity, BigDecimal revenue) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.breakfast.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 讀取資料庫維護的資料表統計資訊，提供不需 COUNT(*) 全表掃描的筆數估計
+ * - PostgreSQL：pg_class.reltuples (由 ANALYZE / autovacuum 更新)，分割表加總各分割區
+ * - H2：INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class TableStatisticsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseVendor databaseVendor;
+
+    public Optional<Long> estimateRowCount(String table) {
+        try {
+            List<Long> estimates = switch (databaseVendor.name()) {
+                // 分割表本身沒有統計資訊，改以各分割區的估計值加總
+                case DatabaseVendor.POSTGRESQL -> jdbcTemplate.queryForList(
+                        "SELECT CASE WHEN c.relkind = 'p' THEN (" +
+                        "SELECT SUM(GREATEST(p.reltuples, 0))::bigint FROM pg_inherits i " +
+                        "JOIN pg_class p ON p.oid = i.inhrelid WHERE i.inhparent = c.oid) " +
+                        "ELSE c.reltuples::bigint END " +
+                        "FROM pg_class c WHERE c.oid = to_regclass(?::text)", Long.class, table);
+                case DatabaseVendor.H2 -> jdbcTemplate.queryForList(
+                        "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE UPPER(TABLE_NAME) = UPPER(?) AND TABLE_SCHEMA = CURRENT_SCHEMA", Long.class, table);
+                default -> List.of();
+            };
+            // reltuples 為 -1 表示尚未 ANALYZE
+            return estimates.stream().filter(estimate -> estimate != null && estimate >= 0).findFirst();
+        } catch (DataAccessException e) {
+            log.warn("Failed to read row count estimate for {}: {}", table, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.breakfast.pos.repository;
 
 import com.breakfast.pos.model.entity.User;
+import com.breakfast.pos.model.projection.UserStatusRow;
+import com.breakfast.pos.model.projection.UsernameStatusRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +18,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.UserStatusRow(u.active, u.tokenVersion) " +
+           "FROM User u WHERE u.username = :username")
+    Optional<UserStatusRow> findStatusByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.breakfast.pos.model.projection.UsernameStatusRow(u.username, u.active, u.tokenVersion) " +
+           "FROM User u WHERE u.username IN :usernames")
+    List<UsernameStatusRow> findStatusesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Modifying
+    @Query("UPDATE User u SET u.active = :active, u.updatedAt = CURRENT_TIMESTAMP WHERE u.username = :username")
+    int updateActive(@Param("username") String username, @Param("active") boolean active);
+
+    /**
+     * 遞增 token 版本，使該使用者先前簽發的 token 全部失效
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1, u.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
 }
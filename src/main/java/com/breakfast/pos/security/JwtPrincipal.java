@@ -0,0 +1,16 @@
+package com.breakfast.pos.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 已驗證簽章與有效期限的 JWT 內容
+ */
+public record JwtPrincipal(
+        String username,
+        List<GrantedAuthority> authorities,
+        int tokenVersion,
+        Instant expiresAt) {
+}
@@ -1,22 +1,30 @@
 package com.breakfast.pos.security;
 
+import com.breakfast.pos.model.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -24,10 +32,13 @@ public class JwtTokenProvider {
     private long jwtExpirationMs;
 
     private Key key;
+    // JwtParser 建立後不可變且執行緒安全，所有請求共用
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String generateToken(Authentication authentication) {
@@ -36,32 +47,36 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
+        // 帶入簽發時的 token 版本，使用者撤銷 token 後版本不符即失效
+        int tokenVersion = authentication.getPrincipal() instanceof User user ? user.getTokenVersion() : 0;
+
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
                 .setSubject(username)
-                .claim("roles", authorities)
+                .claim(ROLES_CLAIM, authorities)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
-
-    public boolean validateToken(String authToken) {
+    /**
+     * 驗證簽章與有效期限並取出內容，每個 token 只解析一次；無效的 token 回傳 empty
+     */
+    public Optional<JwtPrincipal> parse(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            // 版本欄位上線前簽發的 token 視為版本 0
+            Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+            String roles = claims.get(ROLES_CLAIM, String.class);
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    roles == null ? List.of() : AuthorityUtils.commaSeparatedStringToAuthorityList(roles),
+                    tokenVersion == null ? 0 : tokenVersion,
+                    claims.getExpiration().toInstant()));
         } catch (SecurityException | MalformedJwtException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -71,6 +86,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 }
@@ -0,0 +1,97 @@
+package com.breakfast.pos.security;
+
+import com.breakfast.pos.event.UserChangedEvent;
+import com.breakfast.pos.model.projection.UserStatusRow;
+import com.breakfast.pos.model.projection.UsernameStatusRow;
+import com.breakfast.pos.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 使用者啟用狀態與 token 版本快取，JWT 驗證時不必每個請求查詢 users
+ * - 本節點的使用者異動 (停用 / 撤銷 token) 於交易提交後立即失效
+ * - 其他節點的異動與直接修改資料庫的情況，由定期批次比對快取中的使用者補上，最多延遲一個輪詢間隔
+ * - 不存在的帳號同樣快取為停用；TTL 為輪詢失敗時的上限
+ */
+@Component
+public class UserStatusCache {
+
+    private static final UserStatusRow UNKNOWN_USER = new UserStatusRow(false, -1);
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, CachedStatus> statuses = new ConcurrentHashMap<>();
+    // 每次失效遞增；載入期間若有失效，結果可能已過時，不放入快取
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${app.security.user-status.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    }
+
+    /**
+     * 使用者為啟用狀態且 token 版本與目前版本相同時回傳 true
+     */
+    public boolean isAccepted(String username, int tokenVersion) {
+        UserStatusRow status = get(username);
+        return status.active() && status.tokenVersion() == tokenVersion;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    public void invalidate(String username) {
+        invalidations.incrementAndGet();
+        statuses.remove(username);
+    }
+
+    /**
+     * 以一次 IN 查詢比對快取中的使用者，狀態或 token 版本與資料庫不同 (或帳號已刪除) 者失效
+     */
+    @Scheduled(fixedDelayString = "${app.security.user-status.poll-interval-ms:5000}")
+    public void evictChanged() {
+        List<String> usernames = List.copyOf(statuses.keySet());
+        if (usernames.isEmpty()) {
+            return;
+        }
+        Map<String, UserStatusRow> current = userRepository.findStatusesByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(UsernameStatusRow::username, UsernameStatusRow::status));
+        for (String username : usernames) {
+            CachedStatus cached = statuses.get(username);
+            if (cached != null && !cached.status().equals(current.getOrDefault(username, UNKNOWN_USER))) {
+                invalidate(username);
+            }
+        }
+    }
+
+    private UserStatusRow get(String username) {
+        CachedStatus cached = statuses.get(username);
+        if (cached != null && System.nanoTime() - cached.loadedAt() <= ttlNanos) {
+            return cached.status();
+        }
+        long seen = invalidations.get();
+        UserStatusRow status = userRepository.findStatusByUsername(username).orElse(UNKNOWN_USER);
+        CachedStatus loaded = new CachedStatus(status, System.nanoTime());
+        statuses.put(username, loaded);
+        if (invalidations.get() != seen) {
+            statuses.remove(username, loaded);
+        }
+        return status;
+    }
+
+    private record CachedStatus(UserStatusRow status, long loadedAt) {
+    }
+}
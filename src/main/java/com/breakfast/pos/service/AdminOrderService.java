@@ -1,47 +1,245 @@
 package com.breakfast.pos.service;
 
+import com.breakfast.pos.event.OrderStatusChangedEvent;
 import com.breakfast.pos.exception.ResourceNotFoundException;
-import com.breakfast.pos.mapper.OrderMapper;
+import com.breakfast.pos.model.dto.OrderCursorPage;
+import com.breakfast.pos.model.dto.OrderItemResponse;
 import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.dto.OrderStatusUpdateResult;
 import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.OrderItemRow;
+import com.breakfast.pos.model.projection.OrderRow;
+import com.breakfast.pos.model.projection.OrderStatusRow;
 import com.breakfast.pos.repository.OrderRepository;
+import com.breakfast.pos.repository.OrderStatusTransitionRepository;
+import com.breakfast.pos.repository.TableStatisticsRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AdminOrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_SIZE = 200;
+
     private final OrderRepository orderRepository;
-    private final OrderMapper orderMapper;
+    private final OrderStatusTransitionRepository orderStatusTransitionRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Keyset 分頁查詢訂單 (createdAt DESC, id DESC)
+     * 預設不計算總筆數；estimateTotal 為 true 時回傳資料表統計資訊的估計值
+     */
     @Transactional(readOnly = true)
-    public List<OrderResponse> getAllOrders(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<OrderResponse> orders = orderRepository.findAll(pageRequest)
-                .map(orderMapper::toResponse);
-        return orders.getContent();
+    public OrderCursorPage getOrders(String cursor, int size, boolean estimateTotal) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // 多取一筆判斷是否還有下一頁
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findLatestRows(limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findRowsBefore(after.createdAt(), after.id(), limit);
+        }
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderRow last = rows.get(rows.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        Long estimatedTotal = estimateTotal
+                ? tableStatisticsRepository.estimateRowCount("orders").orElse(null)
+                : null;
+        return new OrderCursorPage(assemble(rows), nextCursor, estimatedTotal);
     }
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
-        return orderRepository.findById(id)
-                .map(orderMapper::toResponse)
+        return orderRepository.findRowById(id)
+                .map(row -> assemble(List.of(row)).get(0))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
+    /**
+     * 查詢指定狀態的所有訂單 (依 id 排序)，供廚房看板啟動時重建
+     */
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getOrdersByStatus(Collection<Order.OrderStatus> statuses) {
+        return assemble(orderRepository.findRowsByStatusIn(statuses));
+    }
+
+    /**
+     * 以一個 IN 查詢取得整頁訂單的明細，依 orderId 分組後組成 OrderResponse
+     * 以整頁訂單的建立時間範圍限縮明細查詢，讓分割表只掃描相關月份
+     */
+    private List<OrderResponse> assemble(List<OrderRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime from = rows.get(0).createdAt();
+        LocalDateTime to = from;
+        for (OrderRow row : rows) {
+            from = row.createdAt().isBefore(from) ? row.createdAt() : from;
+            to = row.createdAt().isAfter(to) ? row.createdAt() : to;
+        }
+        Map<Long, List<OrderItemResponse>> itemsByOrderId = orderRepository
+                .findItemRowsByOrderIdIn(rows.stream().map(OrderRow::id).toList(), from, to).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId,
+                        Collectors.mapping(OrderItemRow::toResponse, Collectors.toList())));
+        return rows.stream()
+                .map(row -> row.toResponse(itemsByOrderId.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    /**
+     * 單筆狀態更新：以讀到的版本與 created_at (分割鍵) 為條件更新，並發變更時回傳 409
+     */
     @Transactional
     public OrderResponse updateOrderStatus(Long id, String status) {
-        Order order = orderRepository.findById(id)
+        Order.OrderStatus target = parseStatus(status);
+        OrderStatusRow current = orderRepository.findStatusRowsByIdIn(List.of(id)).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        if (current.status() == target) {
+            return assembleUpdated(List.of(current)).get(0);
+        }
+        if (!current.status().canTransitionTo(target)) {
+            throw new IllegalStateException(
+                    "Cannot change order status from " + current.status() + " to " + target);
+        }
+        if (orderStatusTransitionRepository.transition(List.of(current), target)[0] != 1) {
+            throw new OptimisticLockingFailureException("Order " + id + " was modified concurrently");
+        }
+
+        OrderResponse response = assembleUpdated(List.of(current)).get(0);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(response));
+        return response;
+    }
+
+    /**
+     * 批次狀態更新：固定 3~5 次資料庫往返，不隨訂單數增加
+     * 1. 讀取目前狀態與版本，依轉換表篩出可轉換的訂單
+     * 2. 以一次 JDBC 批次逐筆套用，每筆以讀到的版本為條件並遞增版本，避免覆蓋並行的變更
+     * 3. 依各筆實際更新列數判定結果；未更新者為 CONFLICT，重新讀取其目前狀態回報
+     */
+    @Transactional
+    public List<OrderStatusUpdateResult> updateOrderStatuses(List<Long> ids, String status) {
+        Order.OrderStatus target = parseStatus(status);
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Order ids cannot be empty");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Order ids cannot contain null");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " orders can be updated at once");
+        }
+
+        Map<Long, OrderStatusRow> before = byId(orderRepository.findStatusRowsByIdIn(uniqueIds));
+        List<OrderStatusRow> candidates = uniqueIds.stream()
+                .map(before::get)
+                .filter(row -> row != null && row.status().canTransitionTo(target))
+                .toList();
+        int[] counts = orderStatusTransitionRepository.transition(candidates, target);
+        Map<Long, OrderStatusRow> after = new HashMap<>();
+        List<Long> conflicted = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            OrderStatusRow row = candidates.get(i);
+            if (counts[i] == 1) {
+                after.put(row.id(), new OrderStatusRow(row.id(), target, row.version() + 1, row.createdAt()));
+            } else {
+                conflicted.add(row.id());
+            }
+        }
+        Set<Long> updatedIds = new LinkedHashSet<>(after.keySet());
+        if (!conflicted.isEmpty()) {
+            // created_at 不會變更，以候選訂單的建立時間範圍限縮重新讀取的分割區
+            after.putAll(byId(orderRepository.findStatusRowsByIdIn(conflicted,
+                    earliest(candidates), latest(candidates))));
+        }
+
+        List<OrderStatusUpdateResult> results = new ArrayList<>(uniqueIds.size());
+        for (Long id : uniqueIds) {
+            OrderStatusRow previous = before.get(id);
+            OrderStatusRow current = previous == null ? null : after.getOrDefault(id, previous);
+            OrderStatusUpdateResult.Outcome outcome;
+            if (current == null) {
+                outcome = OrderStatusUpdateResult.Outcome.NOT_FOUND;
+            } else if (previous.status() == target) {
+                outcome = OrderStatusUpdateResult.Outcome.UNCHANGED;
+            } else if (!previous.status().canTransitionTo(target)) {
+                outcome = OrderStatusUpdateResult.Outcome.REJECTED;
+            } else if (updatedIds.contains(id)) {
+                outcome = OrderStatusUpdateResult.Outcome.UPDATED;
+            } else {
+                outcome = OrderStatusUpdateResult.Outcome.CONFLICT;
+            }
+            results.add(new OrderStatusUpdateResult(id, outcome,
+                    current == null ? null : current.status().name(),
+                    current == null ? null : current.version()));
+        }
+
+        if (!updatedIds.isEmpty()) {
+            List<OrderResponse> updated = assembleUpdated(candidates.stream()
+                    .filter(row -> updatedIds.contains(row.id()))
+                    .toList());
+            updated.forEach(order -> eventPublisher.publishEvent(new OrderStatusChangedEvent(order)));
+        }
+        return results;
+    }
+
+    /**
+     * 以讀到的 created_at 範圍重新讀取訂單與明細，分割表只掃描涵蓋的月份
+     */
+    private List<OrderResponse> assembleUpdated(List<OrderStatusRow> rows) {
+        return assemble(orderRepository.findRowsByIdIn(rows.stream().map(OrderStatusRow::id).toList(),
+                earliest(rows), latest(rows)));
+    }
+
+    private static LocalDateTime earliest(List<OrderStatusRow> rows) {
+        return rows.stream().map(OrderStatusRow::createdAt).min(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private static LocalDateTime latest(List<OrderStatusRow> rows) {
+        return rows.stream().map(OrderStatusRow::createdAt).max(Comparator.naturalOrder()).orElseThrow();
+    }
+
+    private static Map<Long, OrderStatusRow> byId(List<OrderStatusRow> rows) {
+        return rows.stream().collect(Collectors.toMap(OrderStatusRow::id, Function.identity()));
+    }
 
-        order.setStatus(Order.OrderStatus.valueOf(status));
-        return orderMapper.toResponse(orderRepository.save(order));
+    private static Order.OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("Order status cannot be empty");
+        }
+        try {
+            return Order.OrderStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order status: " + status);
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.UserChangedEvent;
+import com.breakfast.pos.exception.ResourceNotFoundException;
+import com.breakfast.pos.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 後台使用者管理：停用 / 啟用帳號、撤銷已簽發的 token
+ * 異動於交易提交後發佈 UserChangedEvent，JWT 驗證快取隨即失效
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminUserService {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public void updateActive(String username, boolean active) {
+        if (userRepository.updateActive(username, active) == 0) {
+            throw new ResourceNotFoundException("User not found with username: " + username);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+    }
+
+    /**
+     * 撤銷該使用者目前所有的 token (遞增 token 版本)，需重新登入取得新 token
+     */
+    @Transactional
+    public void revokeTokens(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0) {
+            throw new ResourceNotFoundException("User not found with username: " + username);
+        }
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+    }
+}
@@ -0,0 +1,303 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.mapper.OrderMapper;
+import com.breakfast.pos.model.dto.BatchCheckoutResult;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 離線補單批次結帳
+ * 平板 / 桌面端斷網期間暫存的訂單於恢復連線後一次上傳：
+ * - 以串流方式讀取 JSON 陣列或 NDJSON，不需將整份上傳內容載入記憶體
+ * - 依 idempotencyKey 去除重複 (上傳內容內部、幂等性快取、資料庫)
+ * - 每個 chunk 以同一份菜單快照定價，並以單一交易批次寫入
+ * - 每筆訂單的結果以 NDJSON 逐行寫回
+ */
+@Service
+@Slf4j
+public class BatchCheckoutService {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final OrderRepository orderRepository;
+    private final OrderWriter orderWriter;
+    private final CheckoutIdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public BatchCheckoutService(OrderRepository orderRepository,
+                                OrderWriter orderWriter,
+                                CheckoutIdempotencyCache idempotencyCache,
+                                TransactionTemplate transactionTemplate,
+                                OrderMapper orderMapper,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${app.checkout.batch.chunk-size:100}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.orderWriter = orderWriter;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = transactionTemplate;
+        this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public void checkout(InputStream body, OutputStream out) throws IOException {
+        BatchContext context = new BatchContext(out);
+        List<IndexedRequest> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<OrderRequest> requests = objectMapper.readerFor(OrderRequest.class).readValues(body)) {
+            int index = 0;
+            while (requests.hasNextValue()) {
+                chunk.add(new IndexedRequest(index++, requests.nextValue()));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, context);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // 已寫出的結果仍有效；無法解析的部分以最後一行錯誤回報
+            processChunk(chunk, context);
+            chunk.clear();
+            context.write(BatchCheckoutResult.failed(context.nextIndex(), null,
+                    "Malformed request body: " + e.getOriginalMessage()));
+        }
+        processChunk(chunk, context);
+        log.info("Batch checkout finished: created={}, duplicate={}, failed={}",
+                context.created, context.duplicates, context.failed);
+    }
+
+    private void processChunk(List<IndexedRequest> chunk, BatchContext context) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<IndexedRequest> pending = new ArrayList<>(chunk.size());
+        Map<String, IndexedRequest> unseenKeys = new HashMap<>();
+        // 同一 chunk 內重複的 key 等第一筆有結果後再回報
+        List<IndexedRequest> repeats = new ArrayList<>();
+
+        for (IndexedRequest item : chunk) {
+            OrderRequest request = item.request();
+            String validationError = validate(request);
+            if (validationError != null) {
+                context.write(BatchCheckoutResult.failed(item.index(), request.idempotencyKey(), validationError));
+                continue;
+            }
+            String key = request.idempotencyKey();
+            if (key == null || key.isBlank()) {
+                pending.add(item);
+                continue;
+            }
+            if (context.firstOccurrences.containsKey(key)) {
+                context.write(context.repeatOf(item.index(), key));
+            } else if (unseenKeys.containsKey(key)) {
+                repeats.add(item);
+            } else {
+                OrderResponse cached = idempotencyCache.get(key);
+                if (cached != null) {
+                    context.writeFirst(BatchCheckoutResult.duplicate(item.index(), key,
+                            cached.id(), cached.totalAmount()));
+                } else {
+                    unseenKeys.put(key, item);
+                    pending.add(item);
+                }
+            }
+        }
+
+        // 一次查詢資料庫中已存在的 idempotencyKey
+        Map<String, Order> existing = unseenKeys.isEmpty() ? Map.of()
+                : orderRepository.findByIdempotencyKeyIn(unseenKeys.keySet()).stream()
+                        .collect(Collectors.toMap(Order::getIdempotencyKey, Function.identity()));
+
+        List<IndexedRequest> toWrite = new ArrayList<>(pending.size());
+        for (IndexedRequest item : pending) {
+            Order order = existing.get(item.request().idempotencyKey());
+            if (order != null) {
+                context.writeFirst(BatchCheckoutResult.duplicate(item.index(), order.getIdempotencyKey(),
+                        order.getId(), order.getTotalAmount()));
+            } else {
+                toWrite.add(item);
+            }
+        }
+
+        List<OrderWriteResult> results = write(toWrite);
+        for (int i = 0; i < results.size(); i++) {
+            OrderWriteResult result = results.get(i);
+            IndexedRequest item = toWrite.get(i);
+            String key = item.request().idempotencyKey();
+            if (result.duplicate()) {
+                context.writeFirst(BatchCheckoutResult.duplicate(item.index(), key,
+                        result.response().id(), result.response().totalAmount()));
+            } else if (result.succeeded()) {
+                if (key != null && !key.isBlank()) {
+                    idempotencyCache.put(key, result.response());
+                }
+                context.writeFirst(BatchCheckoutResult.created(item.index(), key, result.response()));
+            } else {
+                context.writeFirst(BatchCheckoutResult.failed(item.index(), key, result.error().getMessage()));
+            }
+        }
+        for (IndexedRequest item : repeats) {
+            context.write(context.repeatOf(item.index(), item.request().idempotencyKey()));
+        }
+        context.flush();
+    }
+
+    /**
+     * 整個 chunk 以單一交易寫入；提交失敗時 (例如其他裝置同時送出相同 key) 改為逐筆寫入
+     */
+    private List<OrderWriteResult> write(List<IndexedRequest> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<OrderRequest> requests = items.stream().map(IndexedRequest::request).toList();
+        try {
+            return transactionTemplate.execute(status -> orderWriter.writeAll(requests));
+        } catch (RuntimeException e) {
+            log.warn("Batch checkout chunk of {} order(s) failed, retrying individually: {}",
+                    requests.size(), e.getMessage());
+            return requests.stream().map(this::writeIndividually).toList();
+        }
+    }
+
+    /**
+     * 逐筆寫入；有 idempotencyKey 時經由幂等性快取，與同 key 進行中的結帳共用結果，
+     * 唯一鍵衝突 (其他裝置以相同 key 搶先提交) 時回傳勝出的訂單
+     */
+    private OrderWriteResult writeIndividually(OrderRequest request) {
+        String key = request.idempotencyKey();
+        try {
+            if (key == null || key.isBlank()) {
+                return OrderWriteResult.success(request, writeSingle(request));
+            }
+            boolean[] written = {false};
+            OrderResponse response = idempotencyCache.getOrCompute(key, () -> {
+                try {
+                    OrderResponse created = writeSingle(request);
+                    written[0] = true;
+                    return created;
+                } catch (DataIntegrityViolationException e) {
+                    if (!CheckoutIdempotencyCache.isKeyViolation(e)) {
+                        throw e;
+                    }
+                    return findByIdempotencyKey(key).orElseThrow(() -> e);
+                }
+            });
+            return written[0]
+                    ? OrderWriteResult.success(request, response)
+                    : OrderWriteResult.duplicate(request, response);
+        } catch (RuntimeException e) {
+            return OrderWriteResult.failure(request, e);
+        }
+    }
+
+    private OrderResponse writeSingle(OrderRequest request) {
+        return transactionTemplate.execute(status -> orderWriter.writeAll(List.of(request)).get(0).getOrThrow());
+    }
+
+    private Optional<OrderResponse> findByIdempotencyKey(String key) {
+        return transactionTemplate.execute(status -> orderRepository.findByIdempotencyKey(key)
+                .map(orderMapper::toResponse));
+    }
+
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "Order request cannot be null";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private record IndexedRequest(int index, OrderRequest request) {
+    }
+
+    private final class BatchContext {
+
+        private final OutputStream out;
+        // 本次上傳中每個 idempotencyKey 第一筆的結果
+        private final Map<String, BatchCheckoutResult> firstOccurrences = new HashMap<>();
+        private int lastIndex = -1;
+        private int created;
+        private int duplicates;
+        private int failed;
+
+        private BatchContext(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(BatchCheckoutResult result) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write(NEWLINE);
+            lastIndex = Math.max(lastIndex, result.index());
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case FAILED -> failed++;
+            }
+        }
+
+        /**
+         * 寫出 key 第一筆的結果，之後相同 key 的請求依此回報
+         */
+        void writeFirst(BatchCheckoutResult result) throws IOException {
+            if (result.idempotencyKey() != null && !result.idempotencyKey().isBlank()) {
+                firstOccurrences.put(result.idempotencyKey(), result);
+            }
+            write(result);
+        }
+
+        /**
+         * 重複的 key：第一筆成功 (或已存在) 時回報 DUPLICATE 並帶回該訂單，第一筆失敗時回報 FAILED
+         */
+        BatchCheckoutResult repeatOf(int index, String key) {
+            BatchCheckoutResult first = firstOccurrences.get(key);
+            if (first.status() == BatchCheckoutResult.Status.FAILED) {
+                return BatchCheckoutResult.failed(index, key,
+                        "Duplicate idempotencyKey in batch, first occurrence at index " + first.index() + " failed");
+            }
+            return BatchCheckoutResult.duplicate(index, key, first.orderId(), first.totalAmount());
+        }
+
+        int nextIndex() {
+            return lastIndex + 1;
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
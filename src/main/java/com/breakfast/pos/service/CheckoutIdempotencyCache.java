@@ -0,0 +1,122 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.OrderResponse;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 結帳幂等性快取
+ * - 已完成的 idempotencyKey → OrderResponse，具 TTL 與容量上限 (LRU)
+ * - 同一 key 的並行請求只會執行一次，其餘請求等待並取得相同結果
+ */
+@Component
+public class CheckoutIdempotencyCache {
+
+    private static final String KEY_CONSTRAINT = "uk_orders_idempotency_key";
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CachedResponse> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<OrderResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public CheckoutIdempotencyCache(@Value("${app.checkout.idempotency.ttl-seconds:600}") long ttlSeconds,
+                                    @Value("${app.checkout.idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.maxEntries = maxEntries;
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > CheckoutIdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 取得 key 對應的訂單；若尚未快取則執行 loader，同一 key 的並行呼叫共用同一次執行結果
+     */
+    public OrderResponse getOrCompute(String key, Supplier<OrderResponse> loader) {
+        OrderResponse cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<OrderResponse> mine = new CompletableFuture<>();
+        CompletableFuture<OrderResponse> winner = inFlight.putIfAbsent(key, mine);
+        if (winner != null) {
+            return await(winner);
+        }
+
+        try {
+            OrderResponse response = loader.get();
+            put(key, response);
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public OrderResponse get(String key) {
+        synchronized (completed) {
+            CachedResponse entry = completed.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.cachedAt() > ttlNanos) {
+                completed.remove(key);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    public void put(String key, OrderResponse response) {
+        synchronized (completed) {
+            completed.put(key, new CachedResponse(response, System.nanoTime()));
+        }
+    }
+
+    /**
+     * 是否為 idempotencyKey 唯一鍵衝突 (其他請求以相同 key 搶先提交)
+     * 依違反的約束名稱判斷；H2 與 PostgreSQL 的錯誤訊息都會帶出約束 (或其索引) 名稱
+     */
+    static boolean isKeyViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String constraint = cause instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(KEY_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static OrderResponse await(CompletableFuture<OrderResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedResponse(OrderResponse response, long cachedAt) {
+    }
+}
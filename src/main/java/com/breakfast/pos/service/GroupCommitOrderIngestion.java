@@ -0,0 +1,168 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit 下單模式 (app.checkout.group-commit.enabled)
+ * 尖峰時段大量平板同時結帳時，將並行的下單請求放入有界佇列，
+ * 由少數 writer 執行緒以 micro-batch 寫入：一批訂單只開一個交易、只 commit (fsync) 一次。
+ * 每個呼叫端仍各自取得自己的 OrderResponse 或錯誤。
+ */
+@Component
+@Slf4j
+public class GroupCommitOrderIngestion {
+
+    private final OrderWriter orderWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final int writerCount;
+    private final BlockingQueue<PendingOrder> queue;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    public GroupCommitOrderIngestion(OrderWriter orderWriter,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.checkout.group-commit.enabled:false}") boolean enabled,
+                                     @Value("${app.checkout.group-commit.batch-size:32}") int batchSize,
+                                     @Value("${app.checkout.group-commit.max-wait-ms:5}") long maxWaitMs,
+                                     @Value("${app.checkout.group-commit.writers:2}") int writerCount,
+                                     @Value("${app.checkout.group-commit.queue-capacity:1024}") int queueCapacity) {
+        this.orderWriter = orderWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.writerCount = writerCount;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < writerCount; i++) {
+            Thread writer = Thread.ofPlatform()
+                    .name("order-group-commit-" + i)
+                    .daemon(true)
+                    .start(this::runWriter);
+            writers.add(writer);
+        }
+        log.info("Group-commit order ingestion enabled: writers={}, batchSize={}, maxWait={}ms",
+                writerCount, batchSize, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+        List<PendingOrder> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> pending.result().completeExceptionally(
+                new IllegalStateException("Order ingestion is shutting down")));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 將下單請求交給 writer 並等待結果；佇列已滿時改由呼叫端自行以單筆交易寫入
+     */
+    public OrderResponse submit(OrderRequest request) {
+        PendingOrder pending = new PendingOrder(request, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            return writeInOwnTransaction(request);
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(
+                        new IllegalStateException("Order ingestion is shutting down")));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        List<OrderRequest> requests = batch.stream().map(PendingOrder::request).toList();
+        List<OrderWriteResult> results;
+        try {
+            results = transactionTemplate.execute(status -> orderWriter.writeAll(requests));
+        } catch (RuntimeException e) {
+            // 整批提交失敗 (例如 idempotencyKey 唯一鍵衝突)，逐筆重試以隔離失敗的訂單
+            log.warn("Group commit of {} order(s) failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeIndividually);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            OrderWriteResult result = results.get(i);
+            if (result.succeeded()) {
+                batch.get(i).result().complete(result.response());
+            } else {
+                batch.get(i).result().completeExceptionally(result.error());
+            }
+        }
+    }
+
+    private void writeIndividually(PendingOrder pending) {
+        try {
+            pending.result().complete(writeInOwnTransaction(pending.request()));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private OrderResponse writeInOwnTransaction(OrderRequest request) {
+        return transactionTemplate.execute(status -> orderWriter.writeAll(List.of(request)).get(0).getOrThrow());
+    }
+
+    private record PendingOrder(OrderRequest request, CompletableFuture<OrderResponse> result) {
+    }
+}
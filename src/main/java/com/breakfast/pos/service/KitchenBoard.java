@@ -0,0 +1,174 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.common.SseEventStream;
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.KitchenBoardChange;
+import com.breakfast.pos.model.dto.KitchenBoardResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 廚房看板：記憶體中的進行中訂單索引 (PENDING / PREPARING)，依狀態分桶
+ * - 啟動時由資料庫重建，之後由本節點的下單與狀態變更事件 (交易提交後) 立即維護
+ * - 其他節點的下單與狀態變更由定期與資料庫比對補上，最多延遲一個輪詢間隔
+ * - 讀取看板與推播差異都不查詢資料庫
+ * - 寫入以物件鎖序列化，版本號與推播的事件 id 一致
+ */
+@Component
+@Slf4j
+public class KitchenBoard {
+
+    static final Set<Order.OrderStatus> ACTIVE_STATUSES = EnumSet.of(Order.OrderStatus.PENDING,
+            Order.OrderStatus.PREPARING);
+    static final String EVENT_NAME = "board-change";
+
+    private final AdminOrderService adminOrderService;
+    private final SseEventStream stream;
+    private final Map<Order.OrderStatus, ConcurrentSkipListMap<Long, OrderResponse>> buckets =
+            new EnumMap<>(Order.OrderStatus.class);
+    private final Map<Long, Order.OrderStatus> statusById = new ConcurrentHashMap<>();
+
+    // 序列化啟動重建與定期比對，兩者共用 touchedDuringRebuild
+    private final Object rebuildLock = new Object();
+
+    // 以下欄位由 this 保護
+    private long version;
+    private Set<Long> touchedDuringRebuild;
+
+    public KitchenBoard(AdminOrderService adminOrderService,
+                        @Value("${app.kitchen.stream.buffer-size:512}") int bufferSize,
+                        @Value("${app.kitchen.stream.timeout-minutes:30}") long timeoutMinutes,
+                        @Value("${app.kitchen.stream.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.adminOrderService = adminOrderService;
+        // 版本號由啟動時間 (毫秒) 起算，重啟後舊連線帶來的 Last-Event-ID 必定較小，會收到 reset 而重新載入看板
+        this.version = System.currentTimeMillis();
+        this.stream = new SseEventStream("kitchen", bufferSize, Duration.ofMinutes(timeoutMinutes),
+                Duration.ofSeconds(heartbeatSeconds), version);
+        ACTIVE_STATUSES.forEach(status -> buckets.put(status, new ConcurrentSkipListMap<>()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Kitchen board rebuilt with {} active order(s)", reconcile());
+    }
+
+    @Scheduled(fixedDelayString = "${app.kitchen.board.poll-interval-ms:5000}")
+    public void refresh() {
+        reconcile();
+    }
+
+    /**
+     * 與資料庫的進行中訂單比對：補上看板沒有或狀態不同的訂單，移除已不在進行中的訂單
+     * 比對期間收到的事件較新，優先於查詢結果
+     *
+     * @return 資料庫中進行中的訂單數
+     */
+    private int reconcile() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                touchedDuringRebuild = new HashSet<>();
+            }
+            List<OrderResponse> activeOrders;
+            try {
+                activeOrders = adminOrderService.getOrdersByStatus(ACTIVE_STATUSES);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    touchedDuringRebuild = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                Set<Long> touched = touchedDuringRebuild;
+                touchedDuringRebuild = null;
+                Set<Long> activeIds = new HashSet<>();
+                for (OrderResponse order : activeOrders) {
+                    activeIds.add(order.id());
+                    if (!touched.contains(order.id())
+                            && statusById.get(order.id()) != Order.OrderStatus.valueOf(order.status())) {
+                        apply(order);
+                    }
+                }
+                for (Long id : List.copyOf(statusById.keySet())) {
+                    if (!activeIds.contains(id) && !touched.contains(id)) {
+                        buckets.get(statusById.remove(id)).remove(id);
+                        publish(KitchenBoardChange.Action.REMOVE, id, null);
+                    }
+                }
+            }
+            return activeOrders.size();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        apply(event.order());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        apply(event.order());
+    }
+
+    public synchronized KitchenBoardResponse snapshot() {
+        return new KitchenBoardResponse(version,
+                new ArrayList<>(buckets.get(Order.OrderStatus.PENDING).values()),
+                new ArrayList<>(buckets.get(Order.OrderStatus.PREPARING).values()));
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        return stream.subscribe(lastEventId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stream.shutdown();
+    }
+
+    private synchronized void apply(OrderResponse order) {
+        Long id = order.id();
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(id);
+        }
+        Order.OrderStatus status = Order.OrderStatus.valueOf(order.status());
+        Order.OrderStatus previous = statusById.get(id);
+        if (previous != null) {
+            buckets.get(previous).remove(id);
+        }
+
+        if (ACTIVE_STATUSES.contains(status)) {
+            buckets.get(status).put(id, order);
+            statusById.put(id, status);
+            publish(KitchenBoardChange.Action.UPSERT, id, order);
+        } else if (previous != null) {
+            statusById.remove(id);
+            publish(KitchenBoardChange.Action.REMOVE, id, null);
+        }
+    }
+
+    private void publish(KitchenBoardChange.Action action, Long orderId, OrderResponse order) {
+        version++;
+        stream.publish(version, EVENT_NAME, new KitchenBoardChange(version, action, orderId, order));
+    }
+}
@@ -0,0 +1,86 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.common.SpaceSavingTopK;
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.model.dto.OrderItemResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 今日即時熱銷 (依銷售數量)，以 Space-Saving 結構在記憶體中估計，讀取不查詢資料庫
+ * - 啟動時以今日的熱銷前 capacity 名載入初始值，之後定期重新載入，涵蓋其他節點的訂單與取消
+ * - 本節點下單提交後立即累加各商品數量；取消不扣減 (結構不支援)，到下次重新載入前為近似值並附上高估上限
+ * - 跨過午夜後以新的一天重新起算
+ */
+@Component
+public class LiveTopSellers {
+
+    private final OrderRepository orderRepository;
+    private final int capacity;
+    private final AtomicReference<Day> current = new AtomicReference<>();
+
+    public LiveTopSellers(OrderRepository orderRepository,
+                          @Value("${app.statistics.live-top.capacity:64}") int capacity) {
+        this.orderRepository = orderRepository;
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    void seed() {
+        refresh();
+    }
+
+    /**
+     * 以資料庫今日的熱銷前 capacity 名取代目前的估計
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.live-top.poll-interval-ms:30000}")
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        Day day = new Day(today, new SpaceSavingTopK<>(capacity));
+        orderRepository.findTopSellingProductsSince(today.atStartOfDay(), Order.OrderStatus.CANCELLED,
+                        Limit.of(capacity))
+                .forEach(row -> day.sketch().add(row.productName(), row.totalSold()));
+        current.set(day);
+    }
+
+    public List<SpaceSavingTopK.Estimate<String>> top(int limit) {
+        return dayFor(LocalDate.now()).sketch().top(limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        LocalDate date = event.order().createdAt().toLocalDate();
+        Day day = dayFor(date);
+        if (day.date().equals(date)) {
+            for (OrderItemResponse item : event.order().items()) {
+                day.sketch().add(item.productName(), item.quantity());
+            }
+        }
+    }
+
+    private Day dayFor(LocalDate date) {
+        Day day = current.get();
+        while (day.date().isBefore(date)) {
+            Day next = new Day(date, new SpaceSavingTopK<>(capacity));
+            if (current.compareAndSet(day, next)) {
+                return next;
+            }
+            day = current.get();
+        }
+        return day;
+    }
+
+    private record Day(LocalDate date, SpaceSavingTopK<String> sketch) {
+    }
+}
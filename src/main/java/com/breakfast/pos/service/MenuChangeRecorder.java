@@ -0,0 +1,49 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.MenuChangedEvent;
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 於菜單異動交易中配發新版本、寫入異動紀錄並發佈 MenuChangedEvent
+ * 紀錄只保留最近 retention 筆，更舊的版本由差異 API 改回傳完整菜單
+ */
+@Component
+public class MenuChangeRecorder {
+
+    private final MenuChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long retention;
+
+    public MenuChangeRecorder(MenuChangeLogRepository changeLogRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.menu.changes.retention:10000}") long retention) {
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+    }
+
+    /**
+     * @return 此次異動的菜單版本
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long recordProductChange(Long productId, MenuChangeLog.Operation operation) {
+        changeLogRepository.incrementVersion();
+        long version = changeLogRepository.currentVersion();
+        changeLogRepository.insert(version, MenuChangeLog.EntityType.PRODUCT.name(), productId, operation.name(),
+                LocalDateTime.now());
+        // 每 100 個版本清理一次，避免每次異動都執行刪除
+        if (version > retention && version % 100 == 0) {
+            changeLogRepository.deleteUpTo(version - retention);
+        }
+        eventPublisher.publishEvent(new MenuChangedEvent(productId));
+        return version;
+    }
+}
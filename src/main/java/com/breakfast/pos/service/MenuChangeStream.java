@@ -0,0 +1,58 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.common.SseEventStream;
+import com.breakfast.pos.event.MenuSnapshotRefreshedEvent;
+import com.breakfast.pos.model.dto.MenuChange;
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * 菜單異動推播 (SSE)
+ * 菜單快照於異動交易提交後重建，重建完成即推播異動商品的最新狀態；
+ * 事件 id 為菜單版本，平板重新連線時以 Last-Event-ID 補送遺漏的異動，
+ * 超出緩衝範圍時可改用 GET /api/menu/changes 差異同步。
+ */
+@Component
+public class MenuChangeStream {
+
+    static final String EVENT_NAME = "menu-change";
+
+    private final SseEventStream stream;
+
+    public MenuChangeStream(@Value("${app.menu.stream.buffer-size:256}") int bufferSize,
+                            @Value("${app.menu.stream.timeout-minutes:30}") long timeoutMinutes,
+                            @Value("${app.menu.stream.heartbeat-seconds:15}") long heartbeatSeconds) {
+        this.stream = new SseEventStream("menu", bufferSize, Duration.ofMinutes(timeoutMinutes),
+                Duration.ofSeconds(heartbeatSeconds));
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        return stream.subscribe(lastEventId);
+    }
+
+    @EventListener
+    public void onSnapshotRefreshed(MenuSnapshotRefreshedEvent event) {
+        MenuSnapshot snapshot = event.snapshot();
+        for (MenuChangeLog change : event.changes()) {
+            long productId = change.getEntityId();
+            int index = snapshot.indexOf(productId);
+            // 推播商品在新快照中的最新狀態；同一商品的多筆異動內容相同，客戶端可重複套用
+            MenuChange payload = index < 0
+                    ? new MenuChange(change.getVersion(), productId, false, null, true)
+                    : new MenuChange(change.getVersion(), productId, snapshot.isAvailable(index),
+                            snapshot.price(index), false);
+            stream.publish(change.getVersion(), EVENT_NAME, payload);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stream.shutdown();
+    }
+}
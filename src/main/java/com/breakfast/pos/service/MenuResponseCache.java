@@ -0,0 +1,109 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.common.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 菜單 API 回應快取
+ * 依菜單快照版本快取已序列化 (及 gzip 壓縮) 的回應內容；菜單未異動前，
+ * 輪詢請求只需比對 ETag 或直接回傳位元組，不查詢資料庫也不重新序列化。
+ * ETag 取自資料內容的雜湊，重啟後相同內容仍得到相同 ETag；多節點下各節點的快照
+ * 由 MenuSnapshotHolder 輪詢 menu_version 更新，最多落後一個輪詢週期。
+ */
+@Component
+@RequiredArgsConstructor
+public class MenuResponseCache {
+
+    private final MenuSnapshotHolder menuSnapshotHolder;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, VersionedResponse> responses = new ConcurrentHashMap<>();
+
+    /**
+     * @param name   快取名稱 (每個端點一個)
+     * @param loader 快取未命中時載入資料，每個菜單版本只會呼叫一次
+     */
+    public CachedResponse get(String name, Supplier<?> loader) {
+        long version = menuSnapshotHolder.current().version();
+        VersionedResponse cached = responses.get(name);
+        if (cached != null && cached.version() == version) {
+            return cached.response();
+        }
+        synchronized (this) {
+            cached = responses.get(name);
+            if (cached != null && cached.version() == version) {
+                return cached.response();
+            }
+            // 先取版本再載入資料，資料不會比版本舊；期間若有異動，下一個版本會重新載入
+            CachedResponse response = serialize(loader.get());
+            responses.put(name, new VersionedResponse(version, response));
+            return response;
+        }
+    }
+
+    private CachedResponse serialize(Object data) {
+        try {
+            byte[] dataJson = objectMapper.writeValueAsBytes(data);
+            String etag = "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(dataJson), 0, 16)
+                    + "\"";
+            byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+            return new CachedResponse(etag, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize menu response", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record VersionedResponse(long version, CachedResponse response) {
+    }
+
+    /**
+     * 已序列化的回應；gzip 版本使用不同的強 ETag
+     */
+    public record CachedResponse(String etag, byte[] json, byte[] gzip) {
+
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -4,22 +4,29 @@ import com.breakfast.pos.exception.ResourceNotFoundException;
 import com.breakfast.pos.mapper.CategoryMapper;
 import com.breakfast.pos.mapper.ProductMapper;
 import com.breakfast.pos.model.dto.CategoryResponse;
+import com.breakfast.pos.model.dto.MenuDeltaResponse;
 import com.breakfast.pos.model.dto.ProductRequest;
 import com.breakfast.pos.model.dto.ProductResponse;
 import com.breakfast.pos.model.entity.Category;
+import com.breakfast.pos.model.entity.MenuChangeLog;
 import com.breakfast.pos.model.entity.Product;
 import com.breakfast.pos.repository.CategoryRepository;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
 import com.breakfast.pos.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 菜單核心業務邏輯
  * 使用 MapStruct Mapper 進行 Entity <-> DTO 轉換
+ * 異動商品時由 MenuChangeRecorder 配發菜單版本並寫入異動紀錄，提交後重建菜單快照
  */
 @Service
 @RequiredArgsConstructor
@@ -29,6 +36,8 @@ public class MenuService {
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
     private final CategoryMapper categoryMapper;
+    private final MenuChangeLogRepository changeLogRepository;
+    private final MenuChangeRecorder changeRecorder;
 
     @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
@@ -37,7 +46,7 @@ public class MenuService {
 
     @Transactional(readOnly = true)
     public Optional<ProductResponse> getProductById(Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithCategoryById(id)
                 .map(productMapper::toResponse);
     }
 
@@ -46,6 +55,31 @@ public class MenuService {
         return categoryMapper.toResponseList(categoryRepository.findAll());
     }
 
+    /**
+     * 差異同步：回傳 since 版本之後異動的商品與已刪除的商品 id
+     * since 早於保留的異動紀錄時改回傳完整菜單 (full = true)
+     */
+    @Transactional(readOnly = true)
+    public MenuDeltaResponse getChangesSince(long since) {
+        long current = changeLogRepository.currentVersion();
+        if (since == current) {
+            return new MenuDeltaResponse(current, false, List.of(), List.of());
+        }
+        Long oldest = changeLogRepository.findOldestVersion();
+        if (since < 0 || since > current || oldest == null || since < oldest - 1) {
+            return new MenuDeltaResponse(current, true, getAllProducts(), List.of());
+        }
+
+        Set<Long> changedIds = changeLogRepository
+                .findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(since, current).stream()
+                .map(MenuChangeLog::getEntityId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<Product> existing = productRepository.findAllById(changedIds);
+        Set<Long> existingIds = existing.stream().map(Product::getId).collect(Collectors.toSet());
+        List<Long> deletes = changedIds.stream().filter(id -> !existingIds.contains(id)).toList();
+        return new MenuDeltaResponse(current, false, productMapper.toResponseList(existing), deletes);
+    }
+
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
         Category category = categoryRepository.findById(request.categoryId())
@@ -60,7 +94,9 @@ public class MenuService {
                 .available(request.available())
                 .build();
 
-        return productMapper.toResponse(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        changeRecorder.recordProductChange(saved.getId(), MenuChangeLog.Operation.UPSERT);
+        return productMapper.toResponse(saved);
     }
 
     @Transactional
@@ -77,7 +113,9 @@ public class MenuService {
                     existingProduct.setCategory(category);
                     existingProduct.setAvailable(request.available());
 
-                    return productMapper.toResponse(productRepository.save(existingProduct));
+                    Product saved = productRepository.save(existingProduct);
+                    changeRecorder.recordProductChange(id, MenuChangeLog.Operation.UPSERT);
+                    return productMapper.toResponse(saved);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
@@ -88,6 +126,7 @@ public class MenuService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        changeRecorder.recordProductChange(id, MenuChangeLog.Operation.DELETE);
     }
 
     @Transactional
@@ -96,6 +135,7 @@ public class MenuService {
                 p -> {
                     p.setAvailable(!p.isAvailable());
                     productRepository.save(p);
+                    changeRecorder.recordProductChange(id, MenuChangeLog.Operation.UPSERT);
                 },
                 () -> {
                     throw new ResourceNotFoundException("Product not found with id: " + id);
@@ -0,0 +1,127 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可變的菜單快照
+ * 商品依 id 排序存放於平行陣列，價格以「分」(long) 表示，
+ * 結帳定價只需二分搜尋與整數運算，不需查詢資料庫。
+ */
+public final class MenuSnapshot {
+
+    private static final int CENTS_SCALE = 2;
+
+    private final long version;
+    private final long[] ids;
+    private final long[] priceCents;
+    private final BigDecimal[] prices;
+    private final boolean[] available;
+    private final String[] names;
+    private final String[] descriptions;
+    private final String[] categoryNames;
+    private final int unavailableCount;
+
+    private MenuSnapshot(long version, List<Product> products, Map<Long, String> categoryNamesById) {
+        List<Product> sorted = products.stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .toList();
+        int size = sorted.size();
+        this.version = version;
+        this.ids = new long[size];
+        this.priceCents = new long[size];
+        this.prices = new BigDecimal[size];
+        this.available = new boolean[size];
+        this.names = new String[size];
+        this.descriptions = new String[size];
+        this.categoryNames = new String[size];
+        int unavailable = 0;
+        for (int i = 0; i < size; i++) {
+            Product product = sorted.get(i);
+            ids[i] = product.getId();
+            priceCents[i] = product.getPrice() == null ? 0 : toCents(product.getPrice());
+            prices[i] = fromCents(priceCents[i]);
+            available[i] = product.isAvailable();
+            if (!available[i]) {
+                unavailable++;
+            }
+            names[i] = product.getName();
+            descriptions[i] = product.getDescription();
+            categoryNames[i] = product.getCategory() == null ? null
+                    : categoryNamesById.get(product.getCategory().getId());
+        }
+        this.unavailableCount = unavailable;
+    }
+
+    public static MenuSnapshot of(long version, List<Product> products, Map<Long, String> categoryNamesById) {
+        return new MenuSnapshot(version, products, categoryNamesById);
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 已下架 (不可販售) 的商品數
+     */
+    public int unavailableCount() {
+        return unavailableCount;
+    }
+
+    /**
+     * @return 商品在快照中的位置，不存在時回傳 -1
+     */
+    public int indexOf(long productId) {
+        int index = Arrays.binarySearch(ids, productId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long productId(int index) {
+        return ids[index];
+    }
+
+    public long priceCents(int index) {
+        return priceCents[index];
+    }
+
+    /**
+     * 單價 (scale 2)，快照內共用同一個不可變實例
+     */
+    public BigDecimal price(int index) {
+        return prices[index];
+    }
+
+    public boolean isAvailable(int index) {
+        return available[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public String description(int index) {
+        return descriptions[index];
+    }
+
+    public String categoryName(int index) {
+        return categoryNames[index];
+    }
+}
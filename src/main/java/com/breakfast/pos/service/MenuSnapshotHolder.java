@@ -0,0 +1,110 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.MenuChangedEvent;
+import com.breakfast.pos.event.MenuSnapshotRefreshedEvent;
+import com.breakfast.pos.model.entity.Category;
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import com.breakfast.pos.repository.CategoryRepository;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
+import com.breakfast.pos.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * 持有目前的菜單快照
+ * 首次使用時載入，之後於菜單異動交易提交後整份重建並以原子方式替換；
+ * 讀取端永遠拿到一致的完整快照。快照版本即資料庫中的菜單版本 (menu_version)，
+ * 重建後同步發佈 MenuSnapshotRefreshedEvent，附上與上一份快照之間的異動紀錄。
+ * 其他節點的異動不會觸發本節點的事件，改由定期比對 menu_version 補上。
+ */
+@Component
+@Slf4j
+public class MenuSnapshotHolder {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final MenuChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readTransaction;
+    private final AtomicReference<MenuSnapshot> current = new AtomicReference<>();
+
+    public MenuSnapshotHolder(ProductRepository productRepository,
+                              CategoryRepository categoryRepository,
+                              MenuChangeLogRepository changeLogRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
+        // 在 AFTER_COMMIT 回呼中重建時，原交易資源仍綁定於執行緒，需開啟新的唯讀交易
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public MenuSnapshot current() {
+        MenuSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * 重建快照；序列化執行，確保較晚的重建不會被較早讀取的資料覆蓋，
+     * 事件也在鎖內發佈，監聽者依版本順序收到
+     */
+    public synchronized MenuSnapshot refresh() {
+        MenuSnapshot previous = current.get();
+        Refreshed refreshed = readTransaction.execute(status -> {
+            // 先讀版本再讀資料：資料可能比版本新，但不會比版本舊
+            long version = changeLogRepository.currentVersion();
+            Map<Long, String> categoryNames = categoryRepository.findAll().stream()
+                    .collect(Collectors.toMap(Category::getId, Category::getName));
+            MenuSnapshot snapshot = MenuSnapshot.of(version, productRepository.findAll(), categoryNames);
+            List<MenuChangeLog> changes = previous == null || version <= previous.version()
+                    ? List.of()
+                    : changeLogRepository.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(
+                            previous.version(), version);
+            return new Refreshed(snapshot, changes);
+        });
+        MenuSnapshot snapshot = refreshed.snapshot();
+        current.set(snapshot);
+        log.info("Menu snapshot rebuilt: version={}, products={}", snapshot.version(), snapshot.size());
+        eventPublisher.publishEvent(new MenuSnapshotRefreshedEvent(snapshot, refreshed.changes()));
+        return snapshot;
+    }
+
+    /**
+     * 資料庫的菜單版本比目前快照新時 (其他節點異動菜單) 重建快照；尚未載入時留待首次讀取
+     */
+    @Scheduled(fixedDelayString = "${app.menu.snapshot.poll-interval-ms:5000}")
+    public void refreshIfStale() {
+        MenuSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return;
+        }
+        Long version = readTransaction.execute(status -> changeLogRepository.currentVersion());
+        if (version != null && version > snapshot.version()) {
+            refresh();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        refresh();
+    }
+
+    private record Refreshed(MenuSnapshot snapshot, List<MenuChangeLog> changes) {
+    }
+}
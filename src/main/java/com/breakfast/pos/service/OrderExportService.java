@@ -0,0 +1,149 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.projection.OrderExportLine;
+import com.breakfast.pos.repository.OrderExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * 訂單與明細匯出 (會計對帳用)
+ * 每列資料讀出後立即寫入回應串流，記憶體用量與匯出區間大小無關
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] NEWLINE = {'\n'};
+    // 讓 Excel 以 UTF-8 開啟含中文的 CSV
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final String CSV_HEADER = "order_id,created_at,status,type,table_number,order_total," +
+            "item_id,product_name,quantity,unit_price,modifiers,subtotal\r\n";
+    // 試算表會將這些字元開頭的儲存格視為公式
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final OrderExportRepository orderExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON_VALUE);
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    /**
+     * 匯出前檢查日期區間 (含起訖日)，須在開始寫入回應前呼叫，錯誤才能回傳 400
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Export range start must not be after end");
+        }
+    }
+
+    /**
+     * 匯出 [from, to] 期間建立的所有訂單明細
+     * 交易只為了讓 PostgreSQL 依 fetch size 分批讀取，整個匯出期間保持唯讀
+     */
+    @Transactional(readOnly = true)
+    public void export(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        validateRange(from, to);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        if (format == Format.CSV) {
+            buffered.write(UTF8_BOM);
+            buffered.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            orderExportRepository.streamLines(start, end, line -> write(line, format, buffered));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+    }
+
+    private void write(OrderExportLine line, Format format, OutputStream out) {
+        try {
+            if (format == Format.CSV) {
+                out.write(toCsv(line).getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write(NEWLINE);
+            }
+        } catch (IOException e) {
+            // 用戶端中斷連線時停止讀取游標
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(OrderExportLine line) {
+        StringBuilder sb = new StringBuilder(160);
+        appendCsv(sb, line.orderId()).append(',');
+        appendCsv(sb, line.createdAt()).append(',');
+        appendCsv(sb, line.status()).append(',');
+        appendCsv(sb, line.type()).append(',');
+        appendCsv(sb, line.tableNumber()).append(',');
+        appendCsv(sb, line.orderTotal()).append(',');
+        appendCsv(sb, line.itemId()).append(',');
+        appendCsv(sb, line.productName()).append(',');
+        appendCsv(sb, line.quantity()).append(',');
+        appendCsv(sb, line.unitPrice()).append(',');
+        appendCsv(sb, line.modifiers()).append(',');
+        appendCsv(sb, line.subtotal()).append("\r\n");
+        return sb.toString();
+    }
+
+    /**
+     * RFC 4180：含逗號、引號或換行的欄位以雙引號包住，內部引號重複一次
+     * 文字欄位以 = + - @ (或 Tab、CR) 開頭時前置 '，避免試算表當成公式執行；數值欄位維持原值
+     */
+    private static StringBuilder appendCsv(StringBuilder sb, Object value) {
+        if (value == null) {
+            return sb;
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return sb.append(text);
+        }
+        return sb.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
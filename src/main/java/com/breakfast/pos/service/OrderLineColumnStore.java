@@ -0,0 +1,460 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.OrderItemResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.OrderSalesLine;
+import com.breakfast.pos.repository.OrderExportRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 訂單明細的記憶體欄式儲存，供後台臨時分析 (篩選 / 分組 / 加總)
+ * - 每筆明細拆成基本型別陣列：建立時間 (epoch 分鐘)、商品 (名稱字典編碼)、數量、金額 (分)、訂單類型
+ * - 啟動時 (對外服務前) 載入保留期間內未取消的明細，本節點的下單 / 取消於交易提交後追加 / 標記
+ * - 其他節點的訂單依建立時間、取消依 cancelled_at 定期輪詢補上；重疊的輪詢區間以訂單 id 去重
+ * - 以固定大小的區塊追加，查詢時每個區塊為一個 fork/join 工作，依時間範圍略過不相交的區塊
+ */
+@Component
+@Slf4j
+public class OrderLineColumnStore {
+
+    static final int CHUNK_SIZE = 1 << 16;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // 輪詢往回重疊的時間，涵蓋較晚提交的交易與節點間的時鐘差
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(2);
+
+    private final OrderExportRepository orderExportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+
+    private final Object writeLock = new Object();
+    private final Map<String, Integer> productCodes = new ConcurrentHashMap<>();
+    private volatile String[] productNames = new String[0];
+    private volatile Chunk[] chunks = new Chunk[0];
+    // 取消標記寫入後遞增，查詢先讀取此值以看見先前的標記
+    private volatile long revision;
+    // 以下兩個輪詢位置由 writeLock 保護：已載入的最晚建立時間與最晚取消時間
+    private LocalDateTime createdWatermark;
+    private LocalDateTime cancelledWatermark;
+
+    public OrderLineColumnStore(OrderExportRepository orderExportRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.statistics.column-store.retention-days:400}") int retentionDays) {
+        this.orderExportRepository = orderExportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    void load() {
+        LocalDateTime start = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        synchronized (writeLock) {
+            createdWatermark = start;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // 先取得取消位置再載入明細，載入期間的取消會在第一次輪詢補上
+            LocalDateTime latestCancelled = orderExportRepository.findLatestCancelledAt().orElse(start);
+            synchronized (writeLock) {
+                cancelledWatermark = latestCancelled;
+            }
+            orderExportRepository.streamSalesLines(start, line -> {
+                synchronized (writeLock) {
+                    appendLine(line);
+                    advanceCreatedWatermark(line.createdAt());
+                }
+            });
+        });
+        log.info("Loaded {} order lines since {} into column store", size(), start.toLocalDate());
+    }
+
+    /**
+     * 補上其他節點新增與取消的訂單；與本節點事件重複的訂單以 id 去重，重複的取消標記不影響結果
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.column-store.poll-interval-ms:10000}")
+    public void poll() {
+        LocalDateTime createdSince;
+        LocalDateTime cancelledSince;
+        synchronized (writeLock) {
+            createdSince = createdWatermark.minus(POLL_OVERLAP);
+            cancelledSince = cancelledWatermark.minus(POLL_OVERLAP);
+        }
+        List<OrderSalesLine> lines = new ArrayList<>();
+        List<OrderExportRepository.CancelledOrder> cancelled = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            orderExportRepository.streamSalesLines(createdSince, lines::add);
+            cancelled.addAll(orderExportRepository.findCancelledSince(cancelledSince));
+        });
+
+        synchronized (writeLock) {
+            // 同一訂單的明細相鄰，整筆訂單只判斷一次是否已存在
+            long orderId = -1;
+            boolean present = false;
+            for (OrderSalesLine line : lines) {
+                if (line.createdAt().isBefore(createdSince)) {
+                    continue;
+                }
+                if (line.orderId() != orderId) {
+                    orderId = line.orderId();
+                    present = contains(orderId, epochMinute(line.createdAt()));
+                }
+                if (!present) {
+                    appendLine(line);
+                }
+                advanceCreatedWatermark(line.createdAt());
+            }
+            for (OrderExportRepository.CancelledOrder order : cancelled) {
+                markCancelled(order.orderId(), epochMinute(order.createdAt()));
+                if (order.cancelledAt().isAfter(cancelledWatermark)) {
+                    cancelledWatermark = order.cancelledAt();
+                }
+            }
+            if (!cancelled.isEmpty()) {
+                revision++;
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        OrderResponse order = event.order();
+        synchronized (writeLock) {
+            // 輪詢可能已先載入這筆訂單
+            if (contains(order.id(), epochMinute(order.createdAt()))) {
+                return;
+            }
+            for (OrderItemResponse item : order.items()) {
+                append(order.id(), order.createdAt(), order.type(), item.productName(), item.quantity(),
+                        MenuSnapshot.toCents(item.subtotal()));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        OrderResponse order = event.order();
+        if (!Order.OrderStatus.CANCELLED.name().equals(order.status())) {
+            return;
+        }
+        synchronized (writeLock) {
+            markCancelled(order.id(), epochMinute(order.createdAt()));
+            revision++;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Chunk chunk : chunks) {
+            size += chunk.size;
+        }
+        return size;
+    }
+
+    /**
+     * 依條件篩選後分組加總；dimensions 為空時回傳單一總計列 (沒有符合的明細時回傳空列表)
+     */
+    public List<Group> query(Filter filter, Set<Dimension> dimensions) {
+        long seen = revision; // volatile 讀取，使此前寫入的取消標記可見
+        Chunk[] snapshot = chunks;
+        int[] sizes = new int[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            sizes[i] = snapshot[i].size;
+        }
+        String[] names = productNames;
+        ScanPlan plan = ScanPlan.of(filter, dimensions, productCodes);
+
+        Map<Long, long[]> totals = ForkJoinPool.commonPool().invoke(new ScanTask(snapshot, sizes, plan, 0, snapshot.length));
+        List<Group> groups = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> groups.add(plan.toGroup(key, sums, names)));
+        return groups;
+    }
+
+    /**
+     * 需持有 writeLock；同一訂單的明細建立時間相同，只需檢查時間範圍涵蓋該分鐘的區塊
+     */
+    private boolean contains(long orderId, int minute) {
+        for (int c = chunks.length - 1; c >= 0; c--) {
+            Chunk chunk = chunks[c];
+            if (minute < chunk.minMinute || minute > chunk.maxMinute) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size; i++) {
+                if (chunk.orderId[i] == orderId && chunk.minute[i] == minute) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 需持有 writeLock
+     */
+    private void markCancelled(long orderId, int minute) {
+        for (Chunk chunk : chunks) {
+            if (minute < chunk.minMinute || minute > chunk.maxMinute) {
+                continue;
+            }
+            for (int i = 0; i < chunk.size; i++) {
+                if (chunk.orderId[i] == orderId && chunk.minute[i] == minute) {
+                    chunk.cancelled[i] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 需持有 writeLock
+     */
+    private void appendLine(OrderSalesLine line) {
+        append(line.orderId(), line.createdAt(), line.type(), line.productName(), line.quantity(),
+                MenuSnapshot.toCents(line.subtotal()));
+    }
+
+    /**
+     * 需持有 writeLock；已存在而略過的明細同樣推進，輪詢區間不會因本節點的訂單而停滯
+     */
+    private void advanceCreatedWatermark(LocalDateTime createdAt) {
+        if (createdAt.isAfter(createdWatermark)) {
+            createdWatermark = createdAt;
+        }
+    }
+
+    /**
+     * 需持有 writeLock；區塊寫滿時開新區塊，並捨棄整塊超過保留期間的舊區塊
+     */
+    private void append(long orderId, LocalDateTime createdAt, String type, String productName, int quantity,
+                        long cents) {
+        Chunk tail = chunks.length == 0 ? null : chunks[chunks.length - 1];
+        if (tail == null || tail.size == CHUNK_SIZE) {
+            tail = new Chunk();
+            chunks = withNewChunk(tail, epochMinute(LocalDate.now().minusDays(retentionDays).atStartOfDay()));
+        }
+        int minute = epochMinute(createdAt);
+        int i = tail.size;
+        tail.orderId[i] = orderId;
+        tail.minute[i] = minute;
+        tail.product[i] = encode(productName);
+        tail.quantity[i] = quantity;
+        tail.cents[i] = cents;
+        tail.type[i] = (byte) Order.OrderType.valueOf(type).ordinal();
+        tail.minMinute = Math.min(tail.minMinute, minute);
+        tail.maxMinute = Math.max(tail.maxMinute, minute);
+        tail.size = i + 1;
+    }
+
+    private Chunk[] withNewChunk(Chunk chunk, int retainFromMinute) {
+        int first = 0;
+        while (first < chunks.length && chunks[first].maxMinute < retainFromMinute) {
+            first++;
+        }
+        Chunk[] next = Arrays.copyOfRange(chunks, first, chunks.length + 1);
+        next[next.length - 1] = chunk;
+        return next;
+    }
+
+    private int encode(String productName) {
+        Integer code = productCodes.get(productName);
+        if (code != null) {
+            return code;
+        }
+        String[] names = Arrays.copyOf(productNames, productNames.length + 1);
+        names[names.length - 1] = productName;
+        productNames = names;
+        productCodes.put(productName, names.length - 1);
+        return names.length - 1;
+    }
+
+    static int epochMinute(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    public enum Dimension {
+        PRODUCT, TYPE, DATE, HOUR, WEEKDAY
+    }
+
+    /**
+     * 篩選條件；null 表示不限制，時段為 [hourFrom, hourTo) 的整點區間
+     */
+    public record Filter(LocalDateTime from, LocalDateTime to, Collection<String> products, Order.OrderType type,
+                         Integer hourFrom, Integer hourTo) {
+    }
+
+    /**
+     * 一個分組的加總；未分組的維度為 null
+     */
+    public record Group(String product, String type, LocalDate date, Integer hour, Integer weekday,
+                        long quantity, long revenueCents, long lines) {
+    }
+
+    private static final class Chunk {
+        private final long[] orderId = new long[CHUNK_SIZE];
+        private final int[] minute = new int[CHUNK_SIZE];
+        private final int[] product = new int[CHUNK_SIZE];
+        private final int[] quantity = new int[CHUNK_SIZE];
+        private final long[] cents = new long[CHUNK_SIZE];
+        private final byte[] type = new byte[CHUNK_SIZE];
+        private final boolean[] cancelled = new boolean[CHUNK_SIZE];
+        private int minMinute = Integer.MAX_VALUE;
+        private int maxMinute = Integer.MIN_VALUE;
+        // 欄位寫入後才更新，查詢讀到的列數內的資料皆可見
+        private volatile int size;
+    }
+
+    /**
+     * 查詢條件轉成欄位上的比較；分組鍵以位元欄位組成一個 long：
+     * 商品 24 bits | 類型 2 bits | 小時 5 bits | 星期 3 bits | epoch 日 (其餘位元)
+     */
+    private record ScanPlan(int fromMinute, int toMinute, boolean[] productMask, int type,
+                            int minuteOfDayFrom, int minuteOfDayTo, Set<Dimension> dimensions) {
+
+        static ScanPlan of(Filter filter, Set<Dimension> dimensions, Map<String, Integer> productCodes) {
+            boolean[] mask = null;
+            if (filter.products() != null) {
+                List<Integer> codes = filter.products().stream()
+                        .map(productCodes::get)
+                        .filter(Objects::nonNull)
+                        .toList();
+                mask = new boolean[codes.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+                for (int code : codes) {
+                    mask[code] = true;
+                }
+            }
+            return new ScanPlan(
+                    filter.from() == null ? Integer.MIN_VALUE : epochMinute(filter.from()),
+                    filter.to() == null ? Integer.MAX_VALUE : epochMinute(filter.to()),
+                    mask,
+                    filter.type() == null ? -1 : filter.type().ordinal(),
+                    filter.hourFrom() == null ? 0 : filter.hourFrom() * 60,
+                    filter.hourTo() == null ? MINUTES_PER_DAY : filter.hourTo() * 60,
+                    dimensions);
+        }
+
+        boolean overlaps(Chunk chunk) {
+            return chunk.maxMinute >= fromMinute && chunk.minMinute < toMinute;
+        }
+
+        void scan(Chunk chunk, int size, Map<Long, long[]> totals) {
+            boolean groupProduct = dimensions.contains(Dimension.PRODUCT);
+            boolean groupType = dimensions.contains(Dimension.TYPE);
+            boolean groupHour = dimensions.contains(Dimension.HOUR);
+            boolean groupWeekday = dimensions.contains(Dimension.WEEKDAY);
+            boolean groupDate = dimensions.contains(Dimension.DATE);
+            for (int i = 0; i < size; i++) {
+                int minute = chunk.minute[i];
+                if (minute < fromMinute || minute >= toMinute || chunk.cancelled[i]) {
+                    continue;
+                }
+                int product = chunk.product[i];
+                if (productMask != null && (product >= productMask.length || !productMask[product])) {
+                    continue;
+                }
+                if (type >= 0 && chunk.type[i] != type) {
+                    continue;
+                }
+                int minuteOfDay = Math.floorMod(minute, MINUTES_PER_DAY);
+                if (minuteOfDay < minuteOfDayFrom || minuteOfDay >= minuteOfDayTo) {
+                    continue;
+                }
+
+                long epochDay = Math.floorDiv(minute, MINUTES_PER_DAY);
+                long key = 0;
+                if (groupProduct) {
+                    key |= product;
+                }
+                if (groupType) {
+                    key |= (long) chunk.type[i] << 24;
+                }
+                if (groupHour) {
+                    key |= (long) (minuteOfDay / 60) << 26;
+                }
+                if (groupWeekday) {
+                    key |= (long) Math.floorMod(epochDay + 3, 7) << 31;
+                }
+                if (groupDate) {
+                    key |= epochDay << 34;
+                }
+                long[] sums = totals.computeIfAbsent(key, k -> new long[3]);
+                sums[0] += chunk.quantity[i];
+                sums[1] += chunk.cents[i];
+                sums[2]++;
+            }
+        }
+
+        Group toGroup(long key, long[] sums, String[] names) {
+            return new Group(
+                    dimensions.contains(Dimension.PRODUCT) ? names[(int) (key & 0xFFFFFF)] : null,
+                    dimensions.contains(Dimension.TYPE) ? Order.OrderType.values()[(int) (key >>> 24 & 0x3)].name() : null,
+                    dimensions.contains(Dimension.DATE) ? LocalDate.ofEpochDay(key >>> 34) : null,
+                    dimensions.contains(Dimension.HOUR) ? (int) (key >>> 26 & 0x1F) : null,
+                    dimensions.contains(Dimension.WEEKDAY) ? (int) (key >>> 31 & 0x7) + 1 : null,
+                    sums[0], sums[1], sums[2]);
+        }
+    }
+
+    /**
+     * 對區塊區間二分，每個區塊由一個工作掃描後合併結果
+     */
+    private static final class ScanTask extends RecursiveTask<Map<Long, long[]>> {
+        private final Chunk[] chunks;
+        private final int[] sizes;
+        private final ScanPlan plan;
+        private final int from;
+        private final int to;
+
+        ScanTask(Chunk[] chunks, int[] sizes, ScanPlan plan, int from, int to) {
+            this.chunks = chunks;
+            this.sizes = sizes;
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, long[]> compute() {
+            if (to - from <= 1) {
+                Map<Long, long[]> totals = new HashMap<>();
+                if (to > from && sizes[from] > 0 && plan.overlaps(chunks[from])) {
+                    plan.scan(chunks[from], sizes[from], totals);
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(chunks, sizes, plan, from, mid);
+            left.fork();
+            Map<Long, long[]> right = new ScanTask(chunks, sizes, plan, mid, to).compute();
+            Map<Long, long[]> merged = left.join();
+            right.forEach((key, sums) -> merged.merge(key, sums, (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                a[2] += b[2];
+                return a;
+            }));
+            return merged;
+        }
+    }
+}
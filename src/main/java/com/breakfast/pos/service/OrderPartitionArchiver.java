@@ -0,0 +1,76 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.repository.OrderPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 訂單分割區維護 (僅 PostgreSQL 分割表生效，H2 開發環境直接略過)
+ * - 預先建立未來幾個月的分割區，避免新訂單落入 DEFAULT 分割區
+ * - 超過保留月數的分割區卸離並移到 archive schema，線上查詢與索引不再包含它們
+ * 每個月份的封存在獨立交易中執行，失敗只影響該月份，下次排程再重試
+ */
+@Component
+@Slf4j
+public class OrderPartitionArchiver {
+
+    private final OrderPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeMonths;
+    private final int retentionMonths;
+
+    public OrderPartitionArchiver(OrderPartitionRepository partitionRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.orders.partitions.premake-months:3}") int premakeMonths,
+                                  @Value("${app.orders.partitions.retention-months:24}") int retentionMonths) {
+        if (retentionMonths < 1) {
+            throw new IllegalArgumentException("app.orders.partitions.retention-months must be at least 1");
+        }
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.orders.partitions.cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!partitionRepository.isPartitioned()) {
+            return;
+        }
+        maintain(YearMonth.now());
+    }
+
+    void maintain(YearMonth current) {
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                partitionRepository.createMonth(month);
+            } catch (RuntimeException e) {
+                // 例如 DEFAULT 分割區已有該月份的資料，需人工搬移後才能建立
+                log.error("Failed to create order partitions for {}", month, e);
+            }
+        }
+
+        // 保留當月在內的 retentionMonths 個月份
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+        List<YearMonth> expired = partitionRepository.findAttachedMonths().stream()
+                .filter(month -> month.isBefore(oldestKept))
+                .toList();
+        for (YearMonth month : expired) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> partitionRepository.archiveMonth(month));
+            } catch (RuntimeException e) {
+                log.error("Failed to archive order partitions for {}", month, e);
+            }
+        }
+    }
+}
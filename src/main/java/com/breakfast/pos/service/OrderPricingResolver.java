@@ -0,0 +1,102 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.exception.ResourceNotFoundException;
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.entity.OrderItem;
+import com.breakfast.pos.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 訂單定價解析器
+ * 以菜單快照定價：商品查找為陣列上的二分搜尋，金額以「分」累加，
+ * 只在最後寫入訂單時轉為 NUMERIC 金額，結帳過程不查詢資料庫。
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPricingResolver {
+
+    private final ProductRepository productRepository;
+    private final MenuSnapshotHolder menuSnapshotHolder;
+
+    public MenuSnapshot currentMenu() {
+        return menuSnapshotHolder.current();
+    }
+
+    /**
+     * 依購物車內容建立訂單明細並設定總額
+     * 所有不存在或已完售的商品會彙整在同一個例外中回報
+     */
+    public void applyPricing(Order order, List<CartItemRequest> cartItems, MenuSnapshot menu) {
+        verifyProducts(cartItems, menu);
+
+        List<OrderItem> items = new ArrayList<>(cartItems.size());
+        long totalCents = 0;
+        for (CartItemRequest itemReq : cartItems) {
+            int index = menu.indexOf(itemReq.productId());
+            long subtotalCents = Math.multiplyExact(menu.priceCents(index), itemReq.quantity().longValue());
+            totalCents = Math.addExact(totalCents, subtotalCents);
+            items.add(createOrderItem(order, menu, index, itemReq, subtotalCents));
+        }
+        order.setItems(items);
+        order.setTotalAmount(MenuSnapshot.fromCents(totalCents));
+    }
+
+    private void verifyProducts(List<CartItemRequest> cartItems, MenuSnapshot menu) {
+        boolean valid = true;
+        for (CartItemRequest itemReq : cartItems) {
+            int index = menu.indexOf(itemReq.productId());
+            if (index < 0 || !menu.isAvailable(index)) {
+                valid = false;
+                break;
+            }
+        }
+        if (!valid) {
+            reportInvalidProducts(cartItems, menu);
+        }
+    }
+
+    private void reportInvalidProducts(List<CartItemRequest> cartItems, MenuSnapshot menu) {
+        Set<Long> missingIds = new LinkedHashSet<>();
+        Set<String> unavailableNames = new LinkedHashSet<>();
+        for (CartItemRequest itemReq : cartItems) {
+            int index = menu.indexOf(itemReq.productId());
+            if (index < 0) {
+                missingIds.add(itemReq.productId());
+            } else if (!menu.isAvailable(index)) {
+                unavailableNames.add(menu.name(index));
+            }
+        }
+
+        String unavailableMessage = "Product is not available: " + String.join(", ", unavailableNames);
+        if (!missingIds.isEmpty()) {
+            String message = "Product not found with id: " + missingIds.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "));
+            throw new ResourceNotFoundException(unavailableNames.isEmpty()
+                    ? message
+                    : message + "; " + unavailableMessage);
+        }
+        throw new IllegalStateException(unavailableMessage);
+    }
+
+    private OrderItem createOrderItem(Order order, MenuSnapshot menu, int index, CartItemRequest itemReq,
+                                      long subtotalCents) {
+        return OrderItem.builder()
+                .order(order)
+                .product(productRepository.getReferenceById(menu.productId(index))) // 僅建立代理，不查詢資料庫
+                .productName(menu.name(index)) // 冗餘欄位，防止商品刪除後無法查詢
+                .quantity(itemReq.quantity())
+                .unitPrice(menu.price(index))
+                .modifiers(itemReq.modifiers())
+                .subtotal(MenuSnapshot.fromCents(subtotalCents))
+                .build();
+    }
+}
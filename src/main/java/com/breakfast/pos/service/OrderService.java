@@ -1,23 +1,18 @@
 package com.breakfast.pos.service;
 
-import com.breakfast.pos.exception.ResourceNotFoundException;
 import com.breakfast.pos.mapper.OrderMapper;
 import com.breakfast.pos.model.dto.CartItemRequest;
 import com.breakfast.pos.model.dto.OrderRequest;
 import com.breakfast.pos.model.dto.OrderResponse;
-import com.breakfast.pos.model.entity.Order;
-import com.breakfast.pos.model.entity.OrderItem;
-import com.breakfast.pos.model.entity.Product;
 import com.breakfast.pos.repository.OrderRepository;
-import com.breakfast.pos.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * 訂單核心邏輯服務
@@ -28,83 +23,62 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
-    private final PrintService printService;
-    private final LineService lineService;
+    private final OrderWriter orderWriter;
+    private final GroupCommitOrderIngestion groupCommitIngestion;
+    private final CheckoutIdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
     private final OrderMapper orderMapper;
 
     /**
      * 處理結帳流程
-     * 包含：總額計算、持久化、觸發出單與通知
+     * 包含：幂等性檢查、總額計算、持久化、寫入出單與通知的 outbox 事件
+     * 交易範圍只涵蓋寫入本身，唯一鍵衝突可在交易外轉為回傳既有訂單
      */
-    @Transactional
     public OrderResponse placeOrder(OrderRequest request) {
         log.info("Processing new order: type={}, table={}", request.type(), request.tableNumber());
         validateOrderRequest(request);
 
-        if (request.idempotencyKey() != null && !request.idempotencyKey().isBlank()) {
-            var existing = orderRepository.findByIdempotencyKey(request.idempotencyKey());
-            if (existing.isPresent()) {
-                log.info("Duplicate order detected with idempotencyKey={}, returning existing order",
-                        request.idempotencyKey());
-                return orderMapper.toResponse(existing.get());
-            }
+        String idempotencyKey = request.idempotencyKey();
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return writeOrder(request);
         }
+        return idempotencyCache.getOrCompute(idempotencyKey, () -> placeIdempotentOrder(request));
+    }
 
-        Order order = Order.builder()
-                .type(Order.OrderType.valueOf(request.type()))
-                .tableNumber(request.tableNumber())
-                .idempotencyKey(request.idempotencyKey())
-                .status(Order.OrderStatus.PENDING)
-                .build();
-
-        // 轉換 OrderItems 並計算總額
-        var items = request.items().stream()
-                .map(itemReq -> createOrderItem(order, itemReq))
-                .collect(Collectors.toList());
-
-        BigDecimal totalAmount = items.stream()
-                .map(OrderItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        order.setItems(items);
-        order.setTotalAmount(totalAmount);
-
-        // 儲存至 PostgreSQL
-        Order savedOrder = orderRepository.save(order);
-        log.info("Order saved successfully with ID: {}", savedOrder.getId());
+    private OrderResponse placeIdempotentOrder(OrderRequest request) {
+        String idempotencyKey = request.idempotencyKey();
+        Optional<OrderResponse> existing = findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            log.info("Duplicate order detected with idempotencyKey={}, returning existing order", idempotencyKey);
+            return existing.get();
+        }
 
-        // 觸發副作用 (Side Effects)
         try {
-            printService.printReceipt(savedOrder);
-            lineService.notifyOrderStatusChange(savedOrder);
-        } catch (Exception e) {
-            log.error("Error triggering side effects for order {}: {}", savedOrder.getId(), e.getMessage());
-            // 這裡可以選擇是否拋出異常或僅記錄日誌
+            return writeOrder(request);
+        } catch (DataIntegrityViolationException e) {
+            // 只有 idempotencyKey 唯一鍵衝突才代表其他請求以相同 key 搶先提交，其餘違反直接拋出
+            if (!CheckoutIdempotencyCache.isKeyViolation(e)) {
+                throw e;
+            }
+            log.info("Concurrent order with idempotencyKey={} already committed, returning existing order",
+                    idempotencyKey);
+            return findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
         }
-
-        return orderMapper.toResponse(savedOrder);
     }
 
-    private OrderItem createOrderItem(Order order, CartItemRequest itemReq) {
-        Product product = productRepository.findById(itemReq.productId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemReq.productId()));
+    private Optional<OrderResponse> findByIdempotencyKey(String idempotencyKey) {
+        return transactionTemplate.execute(status -> orderRepository.findByIdempotencyKey(idempotencyKey)
+                .map(orderMapper::toResponse));
+    }
 
-        if (!product.isAvailable()) {
-            throw new IllegalStateException("Product is not available: " + product.getName());
+    /**
+     * 寫入單筆訂單：group-commit 模式下交由 writer 批次提交，否則以單筆交易寫入
+     */
+    private OrderResponse writeOrder(OrderRequest request) {
+        if (groupCommitIngestion.isEnabled()) {
+            return groupCommitIngestion.submit(request);
         }
-
-        BigDecimal subtotal = product.getPrice().multiply(new BigDecimal(itemReq.quantity()));
-
-        return OrderItem.builder()
-                .order(order)
-                .product(product)
-                .productName(product.getName()) // 冗餘欄位，防止商品刪除後無法查詢
-                .quantity(itemReq.quantity())
-                .unitPrice(product.getPrice())
-                .modifiers(itemReq.modifiers())
-                .subtotal(subtotal)
-                .build();
+        return transactionTemplate.execute(status -> orderWriter.writeAll(List.of(request)).get(0).getOrThrow());
     }
 
     private void validateOrderRequest(OrderRequest request) {
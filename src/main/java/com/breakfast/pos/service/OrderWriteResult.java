@@ -0,0 +1,35 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+
+/**
+ * 批次寫入中單筆訂單的結果：成功時帶 OrderResponse，失敗時帶原始例外
+ * duplicate 表示相同 idempotencyKey 的訂單已由其他請求建立，response 為該訂單
+ */
+public record OrderWriteResult(OrderRequest request, OrderResponse response, RuntimeException error,
+                               boolean duplicate) {
+
+    public static OrderWriteResult success(OrderRequest request, OrderResponse response) {
+        return new OrderWriteResult(request, response, null, false);
+    }
+
+    public static OrderWriteResult duplicate(OrderRequest request, OrderResponse existing) {
+        return new OrderWriteResult(request, existing, null, true);
+    }
+
+    public static OrderWriteResult failure(OrderRequest request, RuntimeException error) {
+        return new OrderWriteResult(request, null, error, false);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    public OrderResponse getOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,86 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.mapper.OrderMapper;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 訂單寫入器
+ * 在呼叫端的交易中一次寫入一批訂單：同批訂單以同一份菜單快照定價，訂單以 saveAll 批次寫入，
+ * 出單與通知寫入 outbox，並累加每日與時段營收彙總。單筆訂單定價失敗只影響該筆，不影響同批其他訂單。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderWriter {
+
+    private final OrderRepository orderRepository;
+    private final OrderPricingResolver pricingResolver;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderMapper orderMapper;
+
+    /**
+     * @return 與 requests 相同順序的寫入結果
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OrderWriteResult> writeAll(List<OrderRequest> requests) {
+        MenuSnapshot menu = pricingResolver.currentMenu();
+
+        List<OrderWriteResult> results = new ArrayList<>(requests.size());
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            try {
+                orders.add(buildOrder(request, menu));
+                results.add(null);
+            } catch (RuntimeException e) {
+                results.add(OrderWriteResult.failure(request, e));
+            }
+        }
+        if (orders.isEmpty()) {
+            return results;
+        }
+
+        // 儲存至 PostgreSQL (SEQUENCE 主鍵 + JDBC batch)
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        log.info("Saved {} order(s) in one transaction", savedOrders.size());
+
+        // 副作用 (出單、LINE 通知) 與訂單同一交易寫入 outbox，提交後才非同步派送
+        outboxService.enqueueOrderSideEffects(savedOrders);
+
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                OrderResponse response = orderMapper.toResponse(savedOrders.get(next++));
+                eventPublisher.publishEvent(new OrderPlacedEvent(response));
+                results.set(i, OrderWriteResult.success(requests.get(i), response));
+            }
+        }
+        return results;
+    }
+
+    private Order buildOrder(OrderRequest request, MenuSnapshot menu) {
+        Order order = Order.builder()
+                .type(Order.OrderType.valueOf(request.type()))
+                .tableNumber(request.tableNumber())
+                .idempotencyKey(request.idempotencyKey())
+                .status(Order.OrderStatus.PENDING)
+                .build();
+
+        // 依菜單快照轉換 OrderItems 並計算總額
+        pricingResolver.applyPricing(order, request.items(), menu);
+        return order;
+    }
+}
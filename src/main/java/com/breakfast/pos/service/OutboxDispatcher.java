@@ -0,0 +1,247 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.entity.OutboxEvent;
+import com.breakfast.pos.repository.OrderRepository;
+import com.breakfast.pos.repository.OutboxEventRepository;
+import com.breakfast.pos.repository.OutboxLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Outbox 派送器
+ * 交易提交後在 Virtual Thread 上依 channel 逐筆派送 outbox 事件：
+ * - 同一 channel 同時只有一個 worker，並依 id 順序處理，保證出單 / 通知順序；
+ *   多節點時先取得該 channel 的租約 (outbox_channel_leases) 才讀取事件，每筆派送前續約
+ * - 派送失敗以指數退避重試，超過上限後標記為 FAILED 並繼續處理後續事件
+ * - 派送期間不持有資料庫連線，出單機或 LINE 的延遲不再影響結帳
+ * - 定期輪詢補上其他節點提交、或租約被佔用時錯過的事件
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxLeaseRepository outboxLeaseRepository;
+    private final OrderRepository orderRepository;
+    private final PrintService printService;
+    private final LineService lineService;
+    private final ExecutorService executor;
+    private final Map<OutboxEvent.Channel, ChannelWorker> workers = new EnumMap<>(OutboxEvent.Channel.class);
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    // 需大於單筆派送 (含出單機 / LINE 逾時) 的最長時間，否則其他節點可能在派送途中接手
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxLeaseRepository outboxLeaseRepository,
+                            OrderRepository orderRepository,
+                            PrintService printService,
+                            LineService lineService) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxLeaseRepository = outboxLeaseRepository;
+        this.orderRepository = orderRepository;
+        this.printService = printService;
+        this.lineService = lineService;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+        for (OutboxEvent.Channel channel : OutboxEvent.Channel.values()) {
+            workers.put(channel, new ChannelWorker(channel));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        signalAll();
+    }
+
+    /**
+     * 啟動時補送上次停機前尚未完成的事件
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        signalAll();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        signalAll();
+    }
+
+    public void signalAll() {
+        workers.values().forEach(ChannelWorker::signal);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 未取得租約時表示其他節點正在派送此 channel，由持有者處理到佇列清空
+     */
+    private void drain(OutboxEvent.Channel channel) {
+        Duration lease = Duration.ofMillis(leaseMs);
+        if (!outboxLeaseRepository.tryAcquire(channel, leaseOwner, lease)) {
+            return;
+        }
+        try {
+            while (true) {
+                List<OutboxEvent> batch = outboxEventRepository.findByChannelAndStatusOrderByIdAsc(
+                        channel, OutboxEvent.Status.PENDING, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    return;
+                }
+                for (OutboxEvent event : batch) {
+                    Duration wait = Duration.between(LocalDateTime.now(), event.getNextAttemptAt());
+                    if (!wait.isNegative() && !wait.isZero()) {
+                        // 佇列頭的事件尚在退避中，後續事件需等待以維持順序
+                        scheduleSignal(channel, wait);
+                        return;
+                    }
+                    // 續約失敗表示租約已逾期並由其他節點接手，停止以免重複或亂序派送
+                    if (!outboxLeaseRepository.tryAcquire(channel, leaseOwner, lease) || !deliver(event)) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            outboxLeaseRepository.release(channel, leaseOwner);
+        }
+    }
+
+    /**
+     * @return 是否可以繼續處理同一 channel 的下一筆事件
+     */
+    private boolean deliver(OutboxEvent event) {
+        int attempts = event.getAttempts() + 1;
+        try {
+            Order order = (event.getOrderCreatedAt() != null
+                    ? orderRepository.findWithItemsByIdAndCreatedAt(event.getOrderId(), event.getOrderCreatedAt())
+                    : orderRepository.findWithItemsById(event.getOrderId())).orElse(null);
+            if (order == null) {
+                log.warn("Order {} for outbox event {} no longer exists, skipping", event.getOrderId(), event.getId());
+            } else {
+                switch (event.getChannel()) {
+                    case PRINT -> printService.printReceipt(order);
+                    case LINE -> lineService.notifyOrderStatusChange(order);
+                }
+            }
+            outboxEventRepository.markFinished(event.getId(), OutboxEvent.Status.DONE, attempts,
+                    LocalDateTime.now(), null);
+            return true;
+        } catch (Exception e) {
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (attempts >= maxAttempts) {
+                log.error("Outbox event {} ({}) for order {} failed after {} attempts: {}",
+                        event.getId(), event.getChannel(), event.getOrderId(), attempts, error);
+                outboxEventRepository.markFinished(event.getId(), OutboxEvent.Status.FAILED, attempts,
+                        LocalDateTime.now(), error);
+                return true;
+            }
+            Duration backoff = backoff(attempts);
+            log.warn("Outbox event {} ({}) for order {} failed (attempt {}), retrying in {} ms: {}",
+                    event.getId(), event.getChannel(), event.getOrderId(), attempts, backoff.toMillis(), error);
+            outboxEventRepository.scheduleRetry(event.getId(), attempts, LocalDateTime.now().plus(backoff), error);
+            scheduleSignal(event.getChannel(), backoff);
+            return false;
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMs));
+    }
+
+    private void scheduleSignal(OutboxEvent.Channel channel, Duration delay) {
+        try {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(delay);
+                    workers.get(channel).signal();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Outbox dispatcher is shutting down, retry for channel {} skipped", channel);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * 單一 channel 的 worker，確保同時只有一個 drain 在執行
+     * signal 在 drain 期間到達時會以 dirty 旗標記錄，drain 結束後再跑一輪
+     */
+    private final class ChannelWorker {
+
+        private final OutboxEvent.Channel channel;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private ChannelWorker(OutboxEvent.Channel channel) {
+            this.channel = channel;
+        }
+
+        void signal() {
+            dirty.set(true);
+            if (running.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::run);
+                } catch (RejectedExecutionException e) {
+                    running.set(false);
+                }
+            }
+        }
+
+        private void run() {
+            try {
+                while (dirty.getAndSet(false)) {
+                    drain(channel);
+                }
+            } catch (Exception e) {
+                log.error("Outbox worker for channel {} stopped unexpectedly", channel, e);
+            } finally {
+                running.set(false);
+            }
+            if (dirty.get()) {
+                signal();
+            }
+        }
+    }
+}
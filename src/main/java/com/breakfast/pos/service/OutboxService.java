@@ -0,0 +1,40 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.entity.OutboxEvent;
+import com.breakfast.pos.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transactional Outbox 寫入端
+ * 出單與 LINE 通知不在下單交易中直接執行，而是寫入 outbox_events，
+ * 交易提交後由 OutboxDispatcher 非同步派送
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * 必須在下單交易內呼叫，確保事件與訂單一起提交或一起回滾
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOrderSideEffects(List<Order> orders) {
+        List<OutboxEvent> events = orders.stream()
+                .flatMap(order -> Arrays.stream(OutboxEvent.Channel.values())
+                        .map(channel -> OutboxEvent.builder()
+                                .channel(channel)
+                                .orderId(order.getId())
+                                .orderCreatedAt(order.getCreatedAt())
+                                .build()))
+                .toList();
+        outboxEventRepository.saveAll(events);
+    }
+}
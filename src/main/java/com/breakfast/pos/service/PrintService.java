@@ -6,8 +6,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * 處理熱感應出單機 (Thermal Printer) 列印邏輯
@@ -48,7 +46,7 @@ public class PrintService {
 
         order.getItems().forEach(item -> {
             sb.append(String.format("%-15s x%d  $%s\n",
-                    item.getProduct().getName(),
+                    item.getProductName(),
                     item.getQuantity(),
                     item.getSubtotal()));
 
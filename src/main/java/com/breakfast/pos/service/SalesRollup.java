@@ -0,0 +1,211 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.OrderItemResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.repository.DailySalesRepository;
+import com.breakfast.pos.repository.SalesSlotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * daily_sales 與 sales_by_slot 彙總的累加器
+ * 下單與取消於交易提交後先在記憶體依 (日期, 訂單類型) 及 (日期, 15 分鐘時段, 商品, 訂單類型) 合併增量，
+ * 由排程以獨立的短交易寫入；結帳交易不再更新彙總列，尖峰時段的結帳不會在同一列的鎖上排隊。
+ * 寫入失敗的增量併回下次重試；節點在寫入前停止會遺失尚未寫入的增量，由 rebuildDailySales 修正
+ */
+@Component
+@Slf4j
+public class SalesRollup {
+
+    static final int MINUTES_PER_SLOT = 15;
+
+    private final DailySalesRepository dailySalesRepository;
+    private final SalesSlotRepository salesSlotRepository;
+    private final TransactionTemplate writeTransaction;
+    private final Object flushLock = new Object();
+    private Pending pending = new Pending();
+
+    public SalesRollup(DailySalesRepository dailySalesRepository,
+                       SalesSlotRepository salesSlotRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.dailySalesRepository = dailySalesRepository;
+        this.salesSlotRepository = salesSlotRepository;
+        // 由重建等交易內呼叫 flush 時也以獨立交易寫入，不延長呼叫端交易持有的鎖
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        record(event.order(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // CANCELLED 為終止狀態，每筆訂單只會扣除一次
+        if (Order.OrderStatus.CANCELLED.name().equals(event.order().status())) {
+            record(event.order(), -1);
+        }
+    }
+
+    private synchronized void record(OrderResponse order, int sign) {
+        long items = order.items().stream().mapToLong(OrderItemResponse::quantity).sum();
+        pending.days.computeIfAbsent(new DayKey(order.createdAt().toLocalDate(), order.type()), key -> new DayDelta())
+                .add(sign > 0 ? order.totalAmount() : order.totalAmount().negate(), sign, sign * items);
+        for (OrderItemResponse item : order.items()) {
+            pending.slots.computeIfAbsent(SlotKey.of(order.createdAt(), item.productName(), order.type()),
+                    key -> new SlotDelta()).add(sign * item.quantity(),
+                    sign > 0 ? item.subtotal() : item.subtotal().negate());
+        }
+    }
+
+    static int slotOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / MINUTES_PER_SLOT;
+    }
+
+    /**
+     * 將累積的增量依主鍵順序寫入；各節點以相同順序鎖定彙總列，並行寫入不會互相死結
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.rollup.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Pending batch = drain();
+            if (batch.days.isEmpty() && batch.slots.isEmpty()) {
+                return;
+            }
+            try {
+                writeTransaction.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} daily / {} slot rollup delta(s), retrying on next flush: {}",
+                        batch.days.size(), batch.slots.size(), e.getMessage());
+                restore(batch);
+            }
+        }
+    }
+
+    /**
+     * 指定日期已寫入 daily_sales 的合計加上本節點尚未寫入的增量
+     * 持有 flushLock 讀取，寫入中的批次不會同時出現在兩邊或兩邊都缺
+     */
+    public DailySalesRepository.DayTotals dayTotals(LocalDate date) {
+        synchronized (flushLock) {
+            DailySalesRepository.DayTotals stored = dailySalesRepository.findDayTotals(date);
+            BigDecimal revenue = stored.revenue();
+            long orderCount = stored.orderCount();
+            synchronized (this) {
+                for (Map.Entry<DayKey, DayDelta> entry : pending.days.entrySet()) {
+                    if (entry.getKey().salesDate().equals(date)) {
+                        revenue = revenue.add(entry.getValue().revenue);
+                        orderCount += entry.getValue().orderCount;
+                    }
+                }
+            }
+            return new DailySalesRepository.DayTotals(revenue, orderCount);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void write(Pending batch) {
+        batch.days.forEach((key, delta) -> dailySalesRepository.addDelta(key.salesDate(), key.orderType(),
+                delta.revenue, delta.orderCount, delta.itemCount));
+        List<SalesSlotRepository.SlotDelta> rows = new ArrayList<>(batch.slots.size());
+        batch.slots.forEach((key, delta) -> rows.add(new SalesSlotRepository.SlotDelta(key.salesDate(),
+                key.slotOfDay(), key.productName(), key.orderType(), delta.quantity, delta.revenue)));
+        salesSlotRepository.addDeltas(rows);
+    }
+
+    private synchronized Pending drain() {
+        Pending batch = pending;
+        pending = new Pending();
+        return batch;
+    }
+
+    private synchronized void restore(Pending batch) {
+        batch.days.forEach((key, delta) -> pending.days.computeIfAbsent(key, k -> new DayDelta())
+                .add(delta.revenue, delta.orderCount, delta.itemCount));
+        batch.slots.forEach((key, delta) -> pending.slots.computeIfAbsent(key, k -> new SlotDelta())
+                .add(delta.quantity, delta.revenue));
+    }
+
+    /**
+     * 尚未寫入的增量，TreeMap 依主鍵排序
+     */
+    private static final class Pending {
+        private final Map<DayKey, DayDelta> days = new TreeMap<>();
+        private final Map<SlotKey, SlotDelta> slots = new TreeMap<>();
+    }
+
+    private record DayKey(LocalDate salesDate, String orderType) implements Comparable<DayKey> {
+
+        private static final Comparator<DayKey> ORDER = Comparator.comparing(DayKey::salesDate)
+                .thenComparing(DayKey::orderType);
+
+        @Override
+        public int compareTo(DayKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record SlotKey(LocalDate salesDate, int slotOfDay, String productName, String orderType)
+            implements Comparable<SlotKey> {
+
+        private static final Comparator<SlotKey> ORDER = Comparator.comparing(SlotKey::salesDate)
+                .thenComparingInt(SlotKey::slotOfDay)
+                .thenComparing(SlotKey::productName)
+                .thenComparing(SlotKey::orderType);
+
+        static SlotKey of(LocalDateTime createdAt, String productName, String orderType) {
+            return new SlotKey(createdAt.toLocalDate(), slotOf(createdAt), productName, orderType);
+        }
+
+        @Override
+        public int compareTo(SlotKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class DayDelta {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orderCount;
+        private long itemCount;
+
+        void add(BigDecimal amount, long orders, long items) {
+            revenue = revenue.add(amount);
+            orderCount += orders;
+            itemCount += items;
+        }
+    }
+
+    private static final class SlotDelta {
+        private long quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(long amount, BigDecimal subtotal) {
+            quantity += amount;
+            revenue = revenue.add(subtotal);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.breakfast.pos.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 統計 API 短效快取 (依參數組成的 key)
+ * - TTL 內直接回傳快取結果
+ * - 過期但仍在 stale 視窗內：立即回傳舊結果，並在背景重新計算 (stale-while-revalidate)
+ * - 無快取或超過 stale 視窗：同步計算，同一 key 的並行請求共用同一次計算
+ * - 超過筆數上限時移除最早寫入的一筆
+ */
+@Component
+@Slf4j
+public class StatisticsResponseCache {
+
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final int maxEntries;
+    // 依寫入順序排列 (重新寫入的 key 移到最後)，由自身的鎖保護；淘汰最早寫入的一筆為 O(1)
+    private final Map<String, CachedValue> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher;
+
+    public StatisticsResponseCache(@Value("${app.statistics.cache.ttl-ms:2000}") long ttlMillis,
+                                   @Value("${app.statistics.cache.max-stale-ms:60000}") long maxStaleMillis,
+                                   @Value("${app.statistics.cache.max-entries:256}") int maxEntries) {
+        this.ttlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        this.maxStaleNanos = Duration.ofMillis(maxStaleMillis).toNanos();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+                return size() > StatisticsResponseCache.this.maxEntries;
+            }
+        };
+        this.refresher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("statistics-refresh-", 0).factory());
+    }
+
+    /**
+     * 取得 key 對應的結果；loader 拋出的例外直接回傳給呼叫端，不會被快取
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        CachedValue cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            long age = System.nanoTime() - cached.loadedAt();
+            if (age <= ttlNanos) {
+                return (T) cached.value();
+            }
+            if (age <= ttlNanos + maxStaleNanos) {
+                load(key, loader, true);
+                return (T) cached.value();
+            }
+        }
+        return (T) await(load(key, loader, false));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 同一 key 同時只有一個計算；已有計算進行中時回傳該計算的 future
+     */
+    private CompletableFuture<Object> load(String key, Supplier<?> loader, boolean background) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> winner = inFlight.putIfAbsent(key, mine);
+        if (winner != null) {
+            return winner;
+        }
+
+        Runnable task = () -> {
+            try {
+                Object value = loader.get();
+                put(key, value);
+                mine.complete(value);
+            } catch (RuntimeException e) {
+                if (background) {
+                    log.warn("Background refresh of statistics '{}' failed, serving stale result", key, e);
+                }
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        };
+        if (background) {
+            try {
+                refresher.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 已關閉：移除進行中的紀錄，並讓共用此計算的請求收到例外而不是無限等待
+                inFlight.remove(key, mine);
+                mine.completeExceptionally(e);
+            }
+        } else {
+            task.run();
+        }
+        return mine;
+    }
+
+    private void put(String key, Object value) {
+        synchronized (entries) {
+            entries.remove(key);
+            entries.put(key, new CachedValue(value, System.nanoTime()));
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedValue(Object value, long loadedAt) {
+    }
+}
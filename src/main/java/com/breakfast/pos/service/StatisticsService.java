@@ -1,70 +1,273 @@
 package com.breakfast.pos.service;
 
+import com.breakfast.pos.model.dto.OrderLineQueryRequest;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.TopProductRow;
+import com.breakfast.pos.repository.DailySalesRepository;
 import com.breakfast.pos.repository.OrderRepository;
-import com.breakfast.pos.repository.ProductRepository;
+import com.breakfast.pos.repository.SalesSlotRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsService {
 
+    private static final int MAX_REVENUE_DAYS = 3660;
+    private static final int MAX_TOP_PRODUCTS = 100;
+    private static final Set<Integer> HEATMAP_GRANULARITIES = Set.of(15, 30, 60);
+    private static final int DEFAULT_QUERY_GROUPS = 1000;
+    private static final int MAX_QUERY_GROUPS = 10000;
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final SalesSlotRepository salesSlotRepository;
+    private final TodaySalesCounter todaySalesCounter;
+    private final SalesRollup salesRollup;
+    private final MenuSnapshotHolder menuSnapshotHolder;
+    private final LiveTopSellers liveTopSellers;
+    private final OrderLineColumnStore orderLineColumnStore;
 
-    @Transactional(readOnly = true)
+    /**
+     * 今日統計：營收與訂單數取自記憶體計數器，商品數取自菜單快照，不查詢資料庫
+     */
     public TodayStatistics getTodayStatistics() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-
-        BigDecimal todayRevenue = orderRepository.sumTotalAmountByCreatedAtBetween(startOfDay, endOfDay);
-        long todayOrders = orderRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-        long totalProducts = productRepository.count();
-        long unavailableCount = productRepository.countByAvailableFalse();
+        TodaySalesCounter.Totals today = todaySalesCounter.today();
+        MenuSnapshot menu = menuSnapshotHolder.current();
 
         return new TodayStatistics(
-                todayRevenue.doubleValue(),
-                (int) todayOrders,
-                (int) totalProducts,
-                (int) unavailableCount);
+                MenuSnapshot.fromCents(today.revenueCents()).doubleValue(),
+                (int) today.orderCount(),
+                menu.size(),
+                menu.unavailableCount());
     }
 
+    /**
+     * 最近 days 天 (含今天) 的每日營收，由 daily_sales 一次範圍查詢取得，沒有訂單的日期補 0
+     */
     @Transactional(readOnly = true)
     public List<RevenueData> getRevenueData(int days) {
-        List<RevenueData> revenueList = new ArrayList<>();
+        int range = revenueDays(days);
+        if (range == 0) {
+            return List.of();
+        }
         LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(range - 1L);
+        Map<LocalDate, BigDecimal> revenueByDate = new HashMap<>();
+        dailySalesRepository.findRevenueBetween(from, today)
+                .forEach(row -> revenueByDate.put(row.salesDate(), row.revenue()));
 
-        for (int i = days - 1; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = startOfDay.plusDays(1);
+        List<RevenueData> revenueList = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+            revenueList.add(new RevenueData(date.toString(),
+                    revenueByDate.getOrDefault(date, BigDecimal.ZERO).doubleValue()));
+        }
+        return revenueList;
+    }
 
-            BigDecimal dayRevenue = orderRepository.sumTotalAmountByCreatedAtBetween(startOfDay, endOfDay);
-            revenueList.add(new RevenueData(date.toString(), dayRevenue.doubleValue()));
+    /**
+     * 由訂單資料重新計算 [from, to] 的每日與時段彙總 (補資料或修正時使用)
+     *
+     * @return 重建的彙總列數
+     */
+    @Transactional
+    public int rebuildDailySales(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Rebuild range start must not be after end");
         }
+        // 先寫入尚未寫入的增量，重建會以訂單資料覆蓋區間內的結果
+        salesRollup.flush();
+        return dailySalesRepository.rebuild(from, to) + salesSlotRepository.rebuild(from, to);
+    }
 
-        return revenueList;
+    /**
+     * 星期 × 時段的銷售熱區 (含起訖日)，granularity 為每格分鐘數 (15 / 30 / 60)
+     * 只讀取 sales_by_slot 彙總，依星期合併在應用端完成；沒有銷售的格子不回傳
+     */
+    @Transactional(readOnly = true)
+    public List<HeatmapCell> getHeatmap(LocalDate from, LocalDate to, int granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Heatmap range start must not be after end");
+        }
+        if (!HEATMAP_GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException("Heatmap granularity must be one of 15, 30, 60 minutes");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_REVENUE_DAYS) {
+            throw new IllegalArgumentException("Heatmap range must not exceed " + MAX_REVENUE_DAYS + " days");
+        }
+
+        Map<Integer, HeatmapAccumulator> cells = new TreeMap<>();
+        for (SalesSlotRepository.SlotSales row
+                : salesSlotRepository.findBetween(from, to, granularity / SalesRollup.MINUTES_PER_SLOT)) {
+            int dayOfWeek = row.salesDate().getDayOfWeek().getValue();
+            cells.computeIfAbsent(dayOfWeek * 100 + row.bucket(), key -> new HeatmapAccumulator(dayOfWeek, row.bucket()))
+                    .add(row.productName(), row.quantity(), row.revenue());
+        }
+        return cells.values().stream()
+                .map(cell -> cell.toCell(granularity))
+                .filter(cell -> cell.quantity() > 0)
+                .toList();
     }
 
+    /**
+     * 熱銷排行；days 為 null 時統計全部期間，否則統計最近 days 天 (含今天)
+     * 已取消的訂單不計入
+     */
     @Transactional(readOnly = true)
-    public List<TopProduct> getTopProducts(int limit) {
-        return orderRepository.findTopSellingProducts().stream()
+    public List<TopProduct> getTopProducts(int limit, Integer days) {
+        Limit top = Limit.of(topLimit(limit));
+        List<TopProductRow> rows = days == null
+                ? orderRepository.findTopSellingProducts(Order.OrderStatus.CANCELLED, top)
+                : orderRepository.findTopSellingProductsSince(
+                        LocalDate.now().minusDays(topDays(days) - 1L).atStartOfDay(),
+                        Order.OrderStatus.CANCELLED, top);
+        return rows.stream()
+                .map(row -> new TopProduct(row.productName(), row.totalSold().intValue(),
+                        row.totalRevenue().doubleValue()))
+                .toList();
+    }
+
+    /**
+     * 統計快取的 key 以查詢實際使用的參數組成：超出上下限的值先夾到邊界，與邊界值共用同一筆快取
+     */
+    public String revenueCacheKey(int days) {
+        return "revenue:" + revenueDays(days);
+    }
+
+    public String topProductsCacheKey(int limit, Integer days) {
+        return "top-products:" + topLimit(limit) + ":" + (days == null ? "all" : topDays(days));
+    }
+
+    public String heatmapCacheKey(LocalDate from, LocalDate to, int granularity) {
+        return "heatmap:" + from + ":" + to + ":" + granularity;
+    }
+
+    private static int revenueDays(int days) {
+        return Math.clamp(days, 0, MAX_REVENUE_DAYS);
+    }
+
+    private static int topLimit(int limit) {
+        return Math.clamp(limit, 1, MAX_TOP_PRODUCTS);
+    }
+
+    private static int topDays(int days) {
+        return Math.clamp(days, 1, MAX_REVENUE_DAYS);
+    }
+
+    /**
+     * 今日即時熱銷 (記憶體估計值，不查詢資料庫)
+     */
+    public List<LiveTopProduct> getLiveTopProducts(int limit) {
+        return liveTopSellers.top(Math.clamp(limit, 1, MAX_TOP_PRODUCTS)).stream()
+                .map(estimate -> new LiveTopProduct(estimate.key(), estimate.count(), estimate.error()))
+                .toList();
+    }
+
+    /**
+     * 訂單明細臨時分析：篩選、分組、加總，由記憶體欄式儲存平行掃描，不查詢資料庫
+     * 結果依數量由高至低排序，最多回傳 limit 組
+     */
+    public List<OrderLineGroup> queryOrderLines(OrderLineQueryRequest request) {
+        if (request.from().isAfter(request.to())) {
+            throw new IllegalArgumentException("Query range start must not be after end");
+        }
+        int hourFrom = request.hourFrom() == null ? 0 : request.hourFrom();
+        int hourTo = request.hourTo() == null ? 24 : request.hourTo();
+        if (hourFrom < 0 || hourTo > 24 || hourFrom >= hourTo) {
+            throw new IllegalArgumentException("Hour range must satisfy 0 <= hourFrom < hourTo <= 24");
+        }
+        Order.OrderType type = request.type() == null ? null : parseOrderType(request.type());
+        Set<OrderLineColumnStore.Dimension> dimensions = EnumSet.noneOf(OrderLineColumnStore.Dimension.class);
+        if (request.groupBy() != null) {
+            request.groupBy().forEach(name -> dimensions.add(parseDimension(name)));
+        }
+        int limit = request.limit() == null ? DEFAULT_QUERY_GROUPS : Math.clamp(request.limit(), 1, MAX_QUERY_GROUPS);
+
+        OrderLineColumnStore.Filter filter = new OrderLineColumnStore.Filter(
+                request.from().atStartOfDay(), request.to().plusDays(1).atStartOfDay(),
+                request.products(), type, hourFrom, hourTo);
+        return orderLineColumnStore.query(filter, dimensions).stream()
+                .sorted(Comparator.comparingLong(OrderLineColumnStore.Group::quantity).reversed()
+                        .thenComparing(Comparator.comparingLong(OrderLineColumnStore.Group::revenueCents).reversed()))
                 .limit(limit)
-                .map(row -> new TopProduct(
-                        (String) row[0],
-                        ((Number) row[1]).intValue(),
-                        ((Number) row[2]).doubleValue()))
+                .map(group -> new OrderLineGroup(group.product(), group.type(), group.date(), group.hour(),
+                        group.weekday(), group.quantity(), MenuSnapshot.fromCents(group.revenueCents()).doubleValue(),
+                        group.lines()))
                 .toList();
     }
 
+    private static Order.OrderType parseOrderType(String type) {
+        try {
+            return Order.OrderType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order type: " + type);
+        }
+    }
+
+    private static OrderLineColumnStore.Dimension parseDimension(String name) {
+        try {
+            return OrderLineColumnStore.Dimension.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid groupBy dimension: " + name);
+        }
+    }
+
     public record TodayStatistics(double todayRevenue, int todayOrders, int totalProducts, int lowStockCount) {}
     public record RevenueData(String date, double revenue) {}
     public record TopProduct(String productName, int totalSold, double totalRevenue) {}
+    public record LiveTopProduct(String productName, long estimatedSold, long maxOverestimate) {}
+    public record OrderLineGroup(String product, String type, LocalDate date, Integer hour, Integer weekday,
+                                 long quantity, double revenue, long lines) {}
+    public record HeatmapCell(int dayOfWeek, String slotStart, long quantity, double revenue,
+                              String topProduct, long topProductQuantity) {}
+
+    /**
+     * 單一 (星期, 時段) 格子的累加器，同一商品跨日期的數量先合併再取最高者
+     */
+    private static final class HeatmapAccumulator {
+        // 數量相同時取名稱排序較前者，結果不受 HashMap 走訪順序影響
+        private static final Comparator<Map.Entry<String, Long>> TOP_PRODUCT =
+                Map.Entry.<String, Long>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+        private final int dayOfWeek;
+        private final int bucket;
+        private final Map<String, Long> quantityByProduct = new HashMap<>();
+        private long quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        HeatmapAccumulator(int dayOfWeek, int bucket) {
+            this.dayOfWeek = dayOfWeek;
+            this.bucket = bucket;
+        }
+
+        void add(String productName, long amount, BigDecimal subtotal) {
+            quantity += amount;
+            revenue = revenue.add(subtotal);
+            quantityByProduct.merge(productName, amount, Long::sum);
+        }
+
+        HeatmapCell toCell(int granularity) {
+            Map.Entry<String, Long> top = quantityByProduct.entrySet().stream()
+                    .max(TOP_PRODUCT)
+                    .orElseThrow();
+            return new HeatmapCell(dayOfWeek, LocalTime.MIN.plusMinutes((long) bucket * granularity).toString(),
+                    quantity, revenue.doubleValue(), top.getKey(), top.getValue());
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.repository.DailySalesRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 今日營收 (分) 與訂單數的記憶體計數器，讀取不查詢資料庫
+ * - 啟動時 (對外服務前) 載入今日的值，之後定期以 daily_sales 加上本節點尚未寫入的增量整份取代
+ * - 本節點的下單與取消於交易提交後立即累加 / 扣除，計入訂單建立當日的計數
+ * - 其他節點的訂單在該節點寫入彙總後，於下次輪詢反映
+ * - 跨過午夜後第一次讀寫以新的一天重新起算；屬於前一天的遲到事件直接略過
+ */
+@Component
+@RequiredArgsConstructor
+public class TodaySalesCounter {
+
+    private final SalesRollup salesRollup;
+    private final AtomicReference<DayBucket> current = new AtomicReference<>();
+
+    @PostConstruct
+    void seed() {
+        refresh();
+    }
+
+    /**
+     * 以資料庫的今日合計取代目前計數，涵蓋其他節點的訂單並修正遺漏的事件
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.today.poll-interval-ms:5000}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now();
+        DailySalesRepository.DayTotals totals = salesRollup.dayTotals(today);
+        DayBucket bucket = new DayBucket(today);
+        bucket.add(MenuSnapshot.toCents(totals.revenue()), totals.orderCount());
+        current.set(bucket);
+    }
+
+    public Totals today() {
+        DayBucket bucket = bucketFor(LocalDate.now());
+        return new Totals(bucket.revenueCents.sum(), bucket.orderCount.sum());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        OrderResponse order = event.order();
+        add(order, 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        OrderResponse order = event.order();
+        // CANCELLED 為終止狀態，每筆訂單只會收到一次
+        if (Order.OrderStatus.CANCELLED.name().equals(order.status())) {
+            add(order, -1);
+        }
+    }
+
+    private void add(OrderResponse order, int sign) {
+        LocalDate date = order.createdAt().toLocalDate();
+        DayBucket bucket = bucketFor(date);
+        if (bucket.date.equals(date)) {
+            bucket.add(sign * MenuSnapshot.toCents(order.totalAmount()), sign);
+        }
+    }
+
+    /**
+     * 取得指定日期的計數桶；日期比目前的桶新時以 CAS 換成新的一天，只有一個執行緒會成功
+     */
+    private DayBucket bucketFor(LocalDate date) {
+        DayBucket bucket = current.get();
+        while (bucket.date.isBefore(date)) {
+            DayBucket next = new DayBucket(date);
+            if (current.compareAndSet(bucket, next)) {
+                return next;
+            }
+            bucket = current.get();
+        }
+        return bucket;
+    }
+
+    public record Totals(long revenueCents, long orderCount) {
+    }
+
+    private static final class DayBucket {
+        private final LocalDate date;
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder orderCount = new LongAdder();
+
+        DayBucket(LocalDate date) {
+            this.date = date;
+        }
+
+        void add(long cents, long orders) {
+            revenueCents.add(cents);
+            orderCount.add(orders);
+        }
+    }
+}
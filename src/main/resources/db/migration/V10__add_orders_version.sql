@@ -0,0 +1,4 @@
+-- Flyway V10: 訂單樂觀鎖版本欄位
+-- 批次狀態更新以集合式 UPDATE 遞增版本，單筆更新透過 JPA @Version 偵測並行修改
+
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Flyway V11: 明細冗餘訂單建立時間
+-- 分割表的主鍵與外鍵必須包含分割鍵，明細需帶上所屬訂單的 created_at 才能與 orders 依月份對齊分割，
+-- 依訂單查明細時也能以此欄位限縮掃描的分割區
+
+UPDATE orders SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE orders ALTER COLUMN created_at SET NOT NULL;
+
+ALTER TABLE order_items ADD COLUMN order_created_at TIMESTAMP;
+UPDATE order_items SET order_created_at = (SELECT o.created_at FROM orders o WHERE o.id = order_items.order_id);
+ALTER TABLE order_items ALTER COLUMN order_created_at SET NOT NULL;
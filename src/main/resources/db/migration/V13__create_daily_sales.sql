@@ -0,0 +1,19 @@
+-- Flyway V13: 每日營收彙總 (依日期與訂單類型)
+-- 下單與取消時在同一交易內增量更新，營收趨勢只需對此表做一次範圍掃描；
+-- 已取消的訂單不計入。可透過 POST /api/admin/statistics/daily-sales/rebuild 重新計算指定區間
+
+CREATE TABLE daily_sales (
+    sales_date DATE NOT NULL,
+    order_type VARCHAR(50) NOT NULL,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_daily_sales PRIMARY KEY (sales_date, order_type)
+);
+
+INSERT INTO daily_sales (sales_date, order_type, revenue, order_count, item_count)
+SELECT CAST(o.created_at AS DATE), o.type, SUM(o.total_amount), COUNT(*), COALESCE(SUM(i.items), 0)
+FROM orders o
+LEFT JOIN (SELECT order_id, SUM(quantity) AS items FROM order_items GROUP BY order_id) i ON i.order_id = o.id
+WHERE o.status <> 'CANCELLED'
+GROUP BY CAST(o.created_at AS DATE), o.type;
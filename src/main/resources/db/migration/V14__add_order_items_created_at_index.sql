@@ -0,0 +1,4 @@
+-- Flyway V14: 依訂單建立時間查詢明細的索引 (期間熱銷排行)
+-- PostgreSQL 分割表會在每個分割區建立對應索引
+
+CREATE INDEX idx_order_items_order_created_at ON order_items (order_created_at);
@@ -0,0 +1,23 @@
+-- Flyway V15: 15 分鐘時段 × 商品 × 訂單類型的銷售彙總 (尖峰熱圖)
+-- slot_of_day 為當日第幾個 15 分鐘時段 (0 ~ 95)；下單與取消時在同一交易內增量更新，已取消的訂單不計入
+
+CREATE TABLE sales_by_slot (
+    sales_date DATE NOT NULL,
+    slot_of_day SMALLINT NOT NULL CHECK (slot_of_day BETWEEN 0 AND 95),
+    product_name VARCHAR(200) NOT NULL,
+    order_type VARCHAR(50) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT pk_sales_by_slot PRIMARY KEY (sales_date, slot_of_day, product_name, order_type)
+);
+
+INSERT INTO sales_by_slot (sales_date, slot_of_day, product_name, order_type, quantity, revenue)
+SELECT CAST(o.created_at AS DATE),
+       CAST(EXTRACT(HOUR FROM o.created_at) * 4 + FLOOR(EXTRACT(MINUTE FROM o.created_at) / 15) AS SMALLINT),
+       oi.product_name, o.type, SUM(oi.quantity), SUM(oi.subtotal)
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+WHERE o.status <> 'CANCELLED'
+GROUP BY CAST(o.created_at AS DATE),
+         CAST(EXTRACT(HOUR FROM o.created_at) * 4 + FLOOR(EXTRACT(MINUTE FROM o.created_at) / 15) AS SMALLINT),
+         oi.product_name, o.type;
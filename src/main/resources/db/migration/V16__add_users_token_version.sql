@@ -0,0 +1,4 @@
+-- Flyway V16: 使用者 token 版本
+-- JWT 內帶簽發時的版本，遞增後先前簽發的 token 全部失效 (登出所有裝置 / 帳號外洩)
+
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
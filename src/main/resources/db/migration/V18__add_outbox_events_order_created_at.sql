@@ -0,0 +1,4 @@
+-- Flyway V18: outbox 事件記錄訂單的建立時間 (orders 的分割鍵)
+-- 派送時以 (order_id, order_created_at) 讀取訂單，分割表只需探查所屬月份；既有事件維持 NULL，改以 order_id 讀取
+
+ALTER TABLE outbox_events ADD COLUMN order_created_at TIMESTAMP;
@@ -0,0 +1,6 @@
+-- Flyway V19: 訂單取消時間 (資料庫時間)
+-- 狀態轉換為 CANCELLED 時寫入；各節點的記憶體分析依此欄位輪詢其他節點取消的訂單。既有訂單維持 NULL
+
+ALTER TABLE orders ADD COLUMN cancelled_at TIMESTAMP;
+
+CREATE INDEX idx_orders_cancelled_at ON orders (cancelled_at);
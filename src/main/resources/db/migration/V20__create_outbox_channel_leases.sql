@@ -0,0 +1,12 @@
+-- Flyway V20: outbox 各 channel 的派送租約
+-- 多節點時同一 channel 同時只由持有租約的節點派送，維持依 id 的處理順序；租約逾期後其他節點可接手
+
+CREATE TABLE outbox_channel_leases (
+    channel VARCHAR(20) PRIMARY KEY,
+    owner VARCHAR(64),
+    lease_until TIMESTAMP NOT NULL
+);
+
+INSERT INTO outbox_channel_leases (channel, owner, lease_until) VALUES
+    ('PRINT', NULL, TIMESTAMP '1970-01-01 00:00:00'),
+    ('LINE', NULL, TIMESTAMP '1970-01-01 00:00:00');
@@ -0,0 +1,19 @@
+-- Flyway V7: 建立 Transactional Outbox 資料表
+-- 出單與 LINE 通知於下單交易中寫入此表，交易提交後再由背景派送器處理
+
+CREATE SEQUENCE outbox_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY,
+    channel VARCHAR(20) NOT NULL,
+    order_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP
+);
+
+-- 派送器依 channel 取出待處理事件並依 id 排序
+CREATE INDEX idx_outbox_events_channel_status ON outbox_events (channel, status, id);
@@ -0,0 +1,18 @@
+-- Flyway V8: 菜單異動紀錄 (差異同步)
+-- menu_version 為單列計數器，菜單異動交易以 UPDATE 取得下一個版本；
+-- 該列的鎖持有至交易提交，版本號與提交順序一致，差異查詢不會漏掉較晚提交的較小版本。
+
+CREATE TABLE menu_version (
+    id SMALLINT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO menu_version (id, version) VALUES (1, 0);
+
+CREATE TABLE menu_changes (
+    version BIGINT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
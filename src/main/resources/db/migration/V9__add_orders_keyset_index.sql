@@ -0,0 +1,6 @@
+-- Flyway V9: 訂單列表 keyset 分頁索引
+-- 依 (created_at DESC, id DESC) 排序與比較，取代只含 created_at 的索引
+
+CREATE INDEX idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+
+DROP INDEX idx_orders_created_at;
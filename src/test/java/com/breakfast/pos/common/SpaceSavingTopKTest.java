@@ -0,0 +1,52 @@
+package com.breakfast.pos.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTopKTest {
+
+    @Test
+    @DisplayName("容量足夠時計數應為精確值並依次數遞減排序")
+    void shouldCountExactlyWithinCapacity() {
+        // Arrange
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(8);
+
+        // Act
+        topK.add("蛋餅", 3);
+        topK.add("奶茶", 5);
+        topK.add("蛋餅", 4);
+        topK.add("吐司", 1);
+
+        // Assert
+        List<SpaceSavingTopK.Estimate<String>> top = topK.top(2);
+        assertThat(top).extracting(SpaceSavingTopK.Estimate::key).containsExactly("蛋餅", "奶茶");
+        assertThat(top.get(0).count()).isEqualTo(7);
+        assertThat(top.get(0).error()).isZero();
+    }
+
+    @Test
+    @DisplayName("超過容量時高頻商品仍應留在名單中，且估計值不低於真實次數")
+    void shouldKeepHeavyHittersWhenOverCapacity() {
+        // Arrange
+        SpaceSavingTopK<String> topK = new SpaceSavingTopK<>(3);
+
+        // Act: 大量長尾商品穿插少數熱銷商品
+        for (int i = 0; i < 100; i++) {
+            topK.add("蛋餅", 3);
+            topK.add("奶茶", 2);
+            topK.add("tail-" + i, 1);
+        }
+
+        // Assert
+        List<SpaceSavingTopK.Estimate<String>> top = topK.top(2);
+        assertThat(top).extracting(SpaceSavingTopK.Estimate::key).containsExactlyInAnyOrder("蛋餅", "奶茶");
+        SpaceSavingTopK.Estimate<String> eggCrepe = top.get(0);
+        assertThat(eggCrepe.key()).isEqualTo("蛋餅");
+        assertThat(eggCrepe.count()).isGreaterThanOrEqualTo(300);
+        assertThat(eggCrepe.count() - eggCrepe.error()).isLessThanOrEqualTo(300);
+    }
+}
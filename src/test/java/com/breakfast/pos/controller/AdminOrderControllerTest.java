@@ -0,0 +1,208 @@
+package com.breakfast.pos.controller;
+
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.repository.OrderStatusTransitionRepository;
+import com.breakfast.pos.service.AdminOrderService;
+import com.breakfast.pos.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AdminOrderService adminOrderService;
+
+    @SpyBean
+    private OrderStatusTransitionRepository orderStatusTransitionRepository;
+
+    @Test
+    @DisplayName("GET /api/admin/orders 應以游標逐頁回傳訂單，頁與頁之間不重複")
+    @WithMockUser(roles = "ADMIN")
+    void shouldPageOrdersWithCursor() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            orderService.placeOrder(new OrderRequest("D" + i, "DINE_IN",
+                    List.of(new CartItemRequest(1L, 1, null)), null));
+        }
+
+        // Act
+        MvcResult first = mockMvc.perform(get("/api/admin/orders").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(header().exists(AdminOrderController.NEXT_CURSOR_HEADER))
+                .andExpect(header().doesNotExist(AdminOrderController.TOTAL_ESTIMATE_HEADER))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(AdminOrderController.NEXT_CURSOR_HEADER);
+        MvcResult second = mockMvc.perform(get("/api/admin/orders").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Assert
+        JsonNode firstPage = objectMapper.readTree(first.getResponse().getContentAsString()).get("data");
+        JsonNode secondPage = objectMapper.readTree(second.getResponse().getContentAsString()).get("data");
+        long lastIdOfFirstPage = firstPage.get(1).get("id").asLong();
+        assertThat(firstPage.get(0).get("id").asLong()).isGreaterThan(lastIdOfFirstPage);
+        assertThat(secondPage.get(0).get("id").asLong()).isLessThan(lastIdOfFirstPage);
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/orders?estimateTotal=true 應回傳估計總筆數標頭")
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnEstimatedTotalWhenRequested() throws Exception {
+        mockMvc.perform(get("/api/admin/orders").param("estimateTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(AdminOrderController.TOTAL_ESTIMATE_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/orders 游標格式錯誤應回傳 400")
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/admin/orders").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("PUT /api/admin/orders/status 應依轉換表批次更新並逐筆回傳結果")
+    @WithMockUser(roles = "ADMIN")
+    void shouldBulkUpdateStatusesWithPerOrderOutcome() throws Exception {
+        // Arrange
+        long pending = orderService.placeOrder(new OrderRequest("B1", "DINE_IN",
+                List.of(new CartItemRequest(1L, 1, null)), null)).id();
+        long cancelled = orderService.placeOrder(new OrderRequest("B2", "DINE_IN",
+                List.of(new CartItemRequest(1L, 1, null)), null)).id();
+        adminOrderService.updateOrderStatus(cancelled, "CANCELLED");
+        String body = objectMapper.writeValueAsString(
+                new AdminOrderController.BulkStatusUpdateRequest(List.of(pending, cancelled, 999_999L), "SERVED"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.data[0].status").value("SERVED"))
+                .andExpect(jsonPath("$.data[0].version").value(1))
+                .andExpect(jsonPath("$.data[1].outcome").value("REJECTED"))
+                .andExpect(jsonPath("$.data[1].status").value("CANCELLED"))
+                .andExpect(jsonPath("$.data[2].outcome").value("NOT_FOUND"));
+        assertThat(adminOrderService.getOrderById(pending).status()).isEqualTo("SERVED");
+    }
+
+    @Test
+    @DisplayName("PUT /api/admin/orders/status 讀取後遭並行變更的訂單應回傳 CONFLICT 且不被覆蓋")
+    @WithMockUser(roles = "ADMIN")
+    void shouldNotOverwriteOrderChangedBetweenReadAndUpdate() throws Exception {
+        // Arrange
+        long id = orderService.placeOrder(new OrderRequest("B4", "DINE_IN",
+                List.of(new CartItemRequest(1L, 1, null)), null)).id();
+        // 在讀取版本之後、批次 UPDATE 之前，由另一個交易把訂單改為 PREPARING
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                Thread concurrent = new Thread(() -> adminOrderService.updateOrderStatus(id, "PREPARING"));
+                concurrent.start();
+                concurrent.join();
+            }
+            return invocation.callRealMethod();
+        }).when(orderStatusTransitionRepository).transition(any(), any());
+        String body = objectMapper.writeValueAsString(
+                new AdminOrderController.BulkStatusUpdateRequest(List.of(id), "CANCELLED"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/orders/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].outcome").value("CONFLICT"))
+                .andExpect(jsonPath("$.data[0].status").value("PREPARING"))
+                .andExpect(jsonPath("$.data[0].version").value(1));
+        assertThat(adminOrderService.getOrderById(id).status()).isEqualTo("PREPARING");
+    }
+
+    @Test
+    @DisplayName("PUT /api/admin/orders/{id}/status 不允許的狀態轉換應回傳 409")
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectIllegalTransition() throws Exception {
+        // Arrange
+        long id = orderService.placeOrder(new OrderRequest("B3", "DINE_IN",
+                List.of(new CartItemRequest(1L, 1, null)), null)).id();
+        adminOrderService.updateOrderStatus(id, "COMPLETED");
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/orders/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"PENDING\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/orders/export 應以 CSV 逐列匯出訂單明細")
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportOrderLinesAsCsv() throws Exception {
+        // Arrange
+        long id = orderService.placeOrder(new OrderRequest("E1", "DINE_IN",
+                List.of(new CartItemRequest(1L, 2, "少冰, 去糖")), null)).id();
+        String today = LocalDate.now().toString();
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/admin/orders/export")
+                        .param("from", today)
+                        .param("to", today)
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString(".csv")))
+                .andReturn();
+
+        // Assert
+        String csv = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(csv).contains("order_id,created_at,status");
+        assertThat(csv.lines()).anyMatch(line -> line.startsWith(id + ",") && line.contains("\"少冰, 去糖\""));
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/orders/export 起日晚於迄日應回傳 400")
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectInvertedExportRange() throws Exception {
+        mockMvc.perform(get("/api/admin/orders/export")
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
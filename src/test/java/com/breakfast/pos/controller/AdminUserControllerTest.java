@@ -0,0 +1,86 @@
+package com.breakfast.pos.controller;
+
+import com.breakfast.pos.model.entity.User;
+import com.breakfast.pos.repository.UserRepository;
+import com.breakfast.pos.security.JwtTokenProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminUserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("撤銷 token 後舊 token 應立即失效，重新簽發的 token 可正常使用")
+    void shouldRejectRevokedToken() throws Exception {
+        // Arrange
+        String oldToken = issueToken("staff");
+        mockMvc.perform(get("/api/kitchen/board").header(HttpHeaders.AUTHORIZATION, "Bearer " + oldToken))
+                .andExpect(status().isOk());
+
+        // Act
+        mockMvc.perform(post("/api/admin/users/staff/revoke-tokens").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        // Assert
+        mockMvc.perform(get("/api/kitchen/board").header(HttpHeaders.AUTHORIZATION, "Bearer " + oldToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/kitchen/board").header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken("staff")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("停用帳號後既有 token 應失效，重新啟用後恢復")
+    void shouldRejectTokenOfDeactivatedUser() throws Exception {
+        // Arrange
+        String token = issueToken("staff");
+
+        // Act & Assert
+        mockMvc.perform(put("/api/admin/users/staff/active").param("active", "false")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/kitchen/board").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(put("/api/admin/users/staff/active").param("active", "true")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/kitchen/board").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("不存在的使用者應回傳 404")
+    void shouldReturn404ForUnknownUser() throws Exception {
+        mockMvc.perform(post("/api/admin/users/nobody/revoke-tokens").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    private String issueToken(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -1,20 +1,33 @@
 package com.breakfast.pos.controller;
 
+import com.breakfast.pos.event.MenuSnapshotRefreshedEvent;
 import com.breakfast.pos.model.dto.CategoryResponse;
 import com.breakfast.pos.model.dto.ProductResponse;
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import com.breakfast.pos.model.entity.Product;
+import com.breakfast.pos.service.MenuChangeStream;
 import com.breakfast.pos.service.MenuService;
+import com.breakfast.pos.service.MenuSnapshot;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,23 +39,72 @@ class MenuControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private MenuChangeStream menuChangeStream;
+
     @MockBean
     private MenuService menuService;
 
+    // 回應依菜單版本快取，各測試需使用相同的商品資料
+    private static final List<ProductResponse> PRODUCTS = List.of(
+            new ProductResponse(1L, "起司蛋堡", new BigDecimal("45.00"), "好吃", "漢堡", true),
+            new ProductResponse(2L, "大冰奶", new BigDecimal("25.00"), null, "飲料", true));
+
     @Test
     @DisplayName("GET /api/menu/products 應回傳所有商品")
     void shouldReturnAllProducts() throws Exception {
-        var products = List.of(
-                new ProductResponse(1L, "起司蛋堡", new BigDecimal("45.00"), "好吃", "漢堡", true),
-                new ProductResponse(2L, "大冰奶", new BigDecimal("25.00"), null, "飲料", true));
-        when(menuService.getAllProducts()).thenReturn(products);
+        when(menuService.getAllProducts()).thenReturn(PRODUCTS);
 
         mockMvc.perform(get("/api/menu/products"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data").isArray())
                 .andExpect(jsonPath("$.data.length()").value(2))
-                .andExpect(jsonPath("$.data[0].name").value("起司蛋堡"));
+                .andExpect(jsonPath("$.data[0].name").value("起司蛋堡"))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("GET /api/menu/products 帶相同 ETag 時應回傳 304 且不重新載入菜單")
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        when(menuService.getAllProducts()).thenReturn(PRODUCTS);
+        String etag = mockMvc.perform(get("/api/menu/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(menuService);
+
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+        verify(menuService, never()).getAllProducts();
+    }
+
+    @Test
+    @DisplayName("Accept-Encoding 應依編碼名稱與 q 值判斷是否回傳 gzip")
+    void shouldNegotiateGzipByTokenAndQValue() throws Exception {
+        // Arrange
+        when(menuService.getAllProducts()).thenReturn(PRODUCTS);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "x-gzip-foo"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "deflate, GZIP ; q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/api/menu/products").header(HttpHeaders.ACCEPT_ENCODING, "br, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
     }
 
     @Test
@@ -80,4 +142,51 @@ class MenuControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false));
     }
+
+    @Test
+    @DisplayName("GET /api/menu/stream 應推播菜單異動，並依 Last-Event-ID 補送")
+    void shouldStreamMenuChanges() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/menu/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Product product = Product.builder().id(1L).name("起司蛋堡").price(new BigDecimal("45.00"))
+                .available(false).build();
+        MenuChangeLog change = MenuChangeLog.builder().version(1_000_042L)
+                .entityType(MenuChangeLog.EntityType.PRODUCT).entityId(1L)
+                .operation(MenuChangeLog.Operation.UPSERT).build();
+        menuChangeStream.onSnapshotRefreshed(new MenuSnapshotRefreshedEvent(
+                MenuSnapshot.of(1_000_042L, List.of(product), Map.of()), List.of(change)));
+
+        assertThat(awaitEvent(live, 1_000_042L)).contains("event:menu-change", "\"available\":false");
+
+        MvcResult replayed = mockMvc.perform(get("/api/menu/stream").header("Last-Event-ID", "1000041"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitEvent(replayed, 1_000_042L)).contains("\"productId\":1");
+    }
+
+    /**
+     * SseEmitter 會分次寫出 id/event 前綴與 data，需等到事件結尾的空行才代表整筆事件已送出
+     */
+    private String awaitEvent(MvcResult result, long id) throws Exception {
+        long deadline = System.currentTimeMillis() + 2_000;
+        String event = completeEvent(result, id);
+        while (event == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            event = completeEvent(result, id);
+        }
+        assertThat(event).as("SSE event id:%d", id).isNotNull();
+        return event;
+    }
+
+    private static String completeEvent(MvcResult result, long id) throws Exception {
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        int start = content.indexOf("id:" + id + "\n");
+        if (start < 0) {
+            return null;
+        }
+        int end = content.indexOf("\n\n", start);
+        return end < 0 ? null : content.substring(start, end);
+    }
 }
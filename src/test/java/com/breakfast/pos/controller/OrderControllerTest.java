@@ -0,0 +1,187 @@
+package com.breakfast.pos.controller;
+
+import com.breakfast.pos.model.dto.BatchCheckoutResult;
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.repository.OrderRepository;
+import com.breakfast.pos.service.OrderService;
+import com.breakfast.pos.service.OrderWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @SpyBean
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    @DisplayName("POST /api/orders/checkout/batch 應逐筆回傳 NDJSON 結果並去除重複 key")
+    void shouldCheckoutBatchAsNdjson() throws Exception {
+        // Arrange
+        String key = "offline-" + UUID.randomUUID();
+        String body = String.join("\n",
+                order(key, 1L),
+                order(key, 1L),
+                order("offline-" + UUID.randomUUID(), 999_999L),
+                "");
+
+        // Act
+        String response = mockMvc.perform(post("/api/orders/checkout/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        // Assert
+        List<BatchCheckoutResult> results = parse(response);
+        assertThat(results).extracting(BatchCheckoutResult::index).containsExactlyInAnyOrder(0, 1, 2);
+        BatchCheckoutResult created = find(results, 0);
+        assertThat(created.status()).isEqualTo(BatchCheckoutResult.Status.CREATED);
+        assertThat(created.orderId()).isNotNull();
+        BatchCheckoutResult repeated = find(results, 1);
+        assertThat(repeated.status()).isEqualTo(BatchCheckoutResult.Status.DUPLICATE);
+        assertThat(repeated.orderId()).isEqualTo(created.orderId());
+        assertThat(repeated.totalAmount()).isEqualByComparingTo(created.totalAmount());
+        assertThat(find(results, 2).status()).isEqualTo(BatchCheckoutResult.Status.FAILED);
+        assertThat(find(results, 2).error()).contains("999999");
+        assertThat(orderRepository.findByIdempotencyKey(key)).isPresent();
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/checkout/batch 同一批內重複的 key 在第一筆失敗時應回傳 FAILED")
+    void shouldFailRepeatedKeyWhenFirstOccurrenceFails() throws Exception {
+        // Arrange
+        String key = "offline-" + UUID.randomUUID();
+        String body = String.join("\n",
+                order(key, 999_999L),
+                order(key, 1L),
+                "");
+
+        // Act
+        List<BatchCheckoutResult> results = parse(mockMvc.perform(post("/api/orders/checkout/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        // Assert
+        assertThat(find(results, 0).status()).isEqualTo(BatchCheckoutResult.Status.FAILED);
+        BatchCheckoutResult repeated = find(results, 1);
+        assertThat(repeated.status()).isEqualTo(BatchCheckoutResult.Status.FAILED);
+        assertThat(repeated.error()).contains("first occurrence at index 0 failed");
+        assertThat(orderRepository.findByIdempotencyKey(key)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/checkout/batch 其他裝置以相同 key 搶先結帳時應回傳 DUPLICATE 與勝出的訂單")
+    void shouldReportDuplicateWhenConcurrentCheckoutWins() throws Exception {
+        // Arrange
+        String key = "offline-" + UUID.randomUUID();
+        AtomicReference<OrderResponse> winner = new AtomicReference<>();
+        AtomicBoolean raced = new AtomicBoolean();
+        // 批次已查過既有 key、尚未寫入時，另一台裝置以相同 key 完成結帳
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                Thread concurrent = new Thread(() -> winner.set(orderService.placeOrder(new OrderRequest(null,
+                        "TAKEAWAY", List.of(new CartItemRequest(1L, 1, null)), key))));
+                concurrent.start();
+                concurrent.join();
+            }
+            return invocation.callRealMethod();
+        }).when(AopTestUtils.<OrderWriter>getUltimateTargetObject(orderWriter)).writeAll(anyList());
+
+        // Act
+        List<BatchCheckoutResult> results = parse(mockMvc.perform(post("/api/orders/checkout/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(order(key, 1L) + "\n"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        // Assert
+        BatchCheckoutResult result = find(results, 0);
+        assertThat(result.status()).isEqualTo(BatchCheckoutResult.Status.DUPLICATE);
+        assertThat(result.orderId()).isEqualTo(winner.get().id());
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/checkout/batch 重送已提交的訂單應回傳 DUPLICATE")
+    void shouldReportDuplicateOnResend() throws Exception {
+        // Arrange
+        String key = "offline-" + UUID.randomUUID();
+        String body = "[" + order(key, 1L) + "]";
+        List<BatchCheckoutResult> first = parse(mockMvc.perform(post("/api/orders/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        // Act
+        List<BatchCheckoutResult> second = parse(mockMvc.perform(post("/api/orders/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        // Assert
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).status()).isEqualTo(BatchCheckoutResult.Status.DUPLICATE);
+        assertThat(second.get(0).orderId()).isEqualTo(first.get(0).orderId());
+    }
+
+    private String order(String idempotencyKey, Long productId) {
+        return """
+                {"type":"TAKEAWAY","items":[{"productId":%d,"quantity":1}],"idempotencyKey":"%s"}"""
+                .formatted(productId, idempotencyKey);
+    }
+
+    private List<BatchCheckoutResult> parse(String ndjson) throws Exception {
+        List<BatchCheckoutResult> results = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isBlank()) {
+                results.add(objectMapper.readValue(line, BatchCheckoutResult.class));
+            }
+        }
+        return results;
+    }
+
+    private BatchCheckoutResult find(List<BatchCheckoutResult> results, int index) {
+        return results.stream().filter(result -> result.index() == index).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.breakfast.pos.security;
+
+import com.breakfast.pos.model.projection.UserStatusRow;
+import com.breakfast.pos.repository.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT 認證的每請求成本基準測試 (JMH)：過濾器完整流程、單次解析、改版前的兩次解析
+ * 預設不執行，使用 ./mvnw test -Dtest=JwtAuthenticationBenchmarkTest -Dbenchmark=true 啟動
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class JwtAuthenticationBenchmarkTest {
+
+    private static final String SECRET = "benchmark-only-secret-key-that-is-long-enough-for-hmac-sha256";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private Key key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 3_600_000L);
+        tokenProvider.init();
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findStatusByUsername("admin")).thenReturn(Optional.of(new UserStatusRow(true, 0)));
+        filter = new JwtAuthenticationFilter(tokenProvider, new UserStatusCache(userRepository, 300));
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+    }
+
+    /**
+     * 過濾器完整流程：解析一次並比對使用者狀態快取
+     */
+    @Benchmark
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), (req, res) -> {
+        });
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> parse() {
+        return tokenProvider.parse(token);
+    }
+
+    /**
+     * 改版前的作法：每次建立 parser，驗證與取出 subject 各驗簽解析一次 (不含當時的 users 查詢)
+     */
+    @Benchmark
+    public String legacyDoubleParse() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Test
+    @DisplayName("量測 JWT 認證的每請求成本")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmarkTest.class.getSimpleName())
+                .build()).run();
+    }
+}
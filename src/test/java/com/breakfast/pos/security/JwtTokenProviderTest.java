@@ -0,0 +1,63 @@
+package com.breakfast.pos.security;
+
+import com.breakfast.pos.model.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-only-secret-key-that-is-long-enough-for-hmac-sha256-algorithm";
+
+    @Test
+    @DisplayName("parse 應一次取得使用者名稱、角色、token 版本與到期時間")
+    void shouldParseValidToken() {
+        // Arrange
+        JwtTokenProvider provider = provider(SECRET, 3_600_000L);
+        User user = User.builder().username("staff").role("ROLE_STAFF").tokenVersion(3).build();
+        String token = provider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        // Act
+        JwtPrincipal principal = provider.parse(token).orElseThrow();
+
+        // Assert
+        assertThat(principal.username()).isEqualTo("staff");
+        assertThat(principal.authorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_STAFF");
+        assertThat(principal.tokenVersion()).isEqualTo(3);
+        assertThat(principal.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    @DisplayName("簽章不符、遭竄改或已過期的 token 應回傳 empty")
+    void shouldRejectInvalidTokens() {
+        // Arrange
+        JwtTokenProvider provider = provider(SECRET, 3_600_000L);
+        User user = User.builder().username("admin").role("ROLE_ADMIN").build();
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        String foreign = provider(SECRET + "-other", 3_600_000L).generateToken(authentication);
+        String token = provider.generateToken(authentication);
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "c2lnbmF0dXJl";
+        String expired = provider(SECRET, -1_000L).generateToken(authentication);
+
+        // Act & Assert
+        assertThat(provider.parse(foreign)).isEmpty();
+        assertThat(provider.parse(tampered)).isEmpty();
+        assertThat(provider.parse(expired)).isEmpty();
+        assertThat(provider.parse("not-a-jwt")).isEmpty();
+    }
+
+    private static JwtTokenProvider provider(String secret, long expirationMs) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", expirationMs);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,68 @@
+package com.breakfast.pos.security;
+
+import com.breakfast.pos.model.projection.UserStatusRow;
+import com.breakfast.pos.model.projection.UsernameStatusRow;
+import com.breakfast.pos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatusCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatusCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserStatusCache(userRepository, 300);
+    }
+
+    @Test
+    @DisplayName("輪詢發現其他節點撤銷 token 時，快取應失效並拒絕舊版本")
+    void shouldEvictWhenTokenVersionChangedElsewhere() {
+        // Arrange
+        when(userRepository.findStatusByUsername("staff"))
+                .thenReturn(Optional.of(new UserStatusRow(true, 1)), Optional.of(new UserStatusRow(true, 2)));
+        assertThat(cache.isAccepted("staff", 1)).isTrue();
+        when(userRepository.findStatusesByUsernameIn(anyCollection()))
+                .thenReturn(List.of(new UsernameStatusRow("staff", true, 2)));
+
+        // Act
+        cache.evictChanged();
+
+        // Assert
+        assertThat(cache.isAccepted("staff", 1)).isFalse();
+        assertThat(cache.isAccepted("staff", 2)).isTrue();
+        verify(userRepository, times(2)).findStatusByUsername("staff");
+    }
+
+    @Test
+    @DisplayName("狀態未變更時輪詢不應使快取失效")
+    void shouldKeepUnchangedEntries() {
+        // Arrange
+        when(userRepository.findStatusByUsername("staff")).thenReturn(Optional.of(new UserStatusRow(true, 1)));
+        cache.isAccepted("staff", 1);
+        when(userRepository.findStatusesByUsernameIn(anyCollection()))
+                .thenReturn(List.of(new UsernameStatusRow("staff", true, 1)));
+
+        // Act
+        cache.evictChanged();
+        cache.isAccepted("staff", 1);
+
+        // Assert
+        verify(userRepository, times(1)).findStatusByUsername("staff");
+    }
+}
@@ -0,0 +1,129 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.repository.DailySalesRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * daily_sales / sales_by_slot 彙總需與訂單資料一致：下單累加、取消扣除、重建結果相同
+ */
+@SpringBootTest
+class DailySalesRollupTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AdminOrderService adminOrderService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private SalesRollup salesRollup;
+
+    @Test
+    @DisplayName("下單與取消的增量寫入後應反映在每日營收，重建後結果不變")
+    void shouldKeepRollupInSyncWithOrders() {
+        // Arrange
+        double before = todayRevenue();
+
+        // Act & Assert
+        OrderResponse order = orderService.placeOrder(new OrderRequest("R1", "TAKEAWAY",
+                List.of(new CartItemRequest(1L, 2, null)), null));
+        double placed = todayRevenue();
+        assertThat(placed).isCloseTo(before + order.totalAmount().doubleValue(), within(0.001));
+
+        adminOrderService.updateOrderStatus(order.id(), "CANCELLED");
+        assertThat(todayRevenue()).isCloseTo(before, within(0.001));
+
+        LocalDate today = LocalDate.now();
+        statisticsService.rebuildDailySales(today, today);
+        assertThat(todayRevenue()).isCloseTo(before, within(0.001));
+    }
+
+    @Test
+    @DisplayName("當日合計應包含尚未寫入的增量，寫入後不重複計算")
+    void shouldIncludePendingDeltasInDayTotals() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        salesRollup.flush();
+        DailySalesRepository.DayTotals before = salesRollup.dayTotals(today);
+
+        // Act
+        OrderResponse order = orderService.placeOrder(new OrderRequest("R3", "TAKEAWAY",
+                List.of(new CartItemRequest(1L, 1, null)), null));
+        DailySalesRepository.DayTotals pending = salesRollup.dayTotals(today);
+        salesRollup.flush();
+        DailySalesRepository.DayTotals flushed = salesRollup.dayTotals(today);
+
+        // Assert
+        BigDecimal expected = before.revenue().add(order.totalAmount());
+        assertThat(pending.revenue()).isEqualByComparingTo(expected);
+        assertThat(pending.orderCount()).isEqualTo(before.orderCount() + 1);
+        assertThat(flushed.revenue()).isEqualByComparingTo(expected);
+        assertThat(flushed.orderCount()).isEqualTo(before.orderCount() + 1);
+    }
+
+    @Test
+    @DisplayName("營收趨勢應回傳連續的天數，沒有訂單的日期為 0")
+    void shouldReturnContinuousDaysIncludingEmptyOnes() {
+        // Act
+        List<StatisticsService.RevenueData> revenue = statisticsService.getRevenueData(30);
+
+        // Assert
+        assertThat(revenue).hasSize(30);
+        assertThat(revenue.get(0).date()).isEqualTo(LocalDate.now().minusDays(29).toString());
+        assertThat(revenue.get(29).date()).isEqualTo(LocalDate.now().toString());
+    }
+
+    @Test
+    @DisplayName("銷售熱區應反映下單時段的數量，取消與重建後扣除")
+    void shouldKeepHeatmapInSyncWithOrders() {
+        // Arrange
+        OrderResponse order = orderService.placeOrder(new OrderRequest("R2", "DINE_IN",
+                List.of(new CartItemRequest(1L, 3, null)), null));
+        LocalDateTime createdAt = order.createdAt();
+        long withOrder = slotQuantity(createdAt);
+
+        // Act
+        adminOrderService.updateOrderStatus(order.id(), "CANCELLED");
+        long afterCancel = slotQuantity(createdAt);
+        statisticsService.rebuildDailySales(createdAt.toLocalDate(), createdAt.toLocalDate());
+        long afterRebuild = slotQuantity(createdAt);
+
+        // Assert
+        assertThat(withOrder).isGreaterThanOrEqualTo(3);
+        assertThat(afterCancel).isEqualTo(withOrder - 3);
+        assertThat(afterRebuild).isEqualTo(afterCancel);
+    }
+
+    private long slotQuantity(LocalDateTime time) {
+        salesRollup.flush();
+        String slotStart = LocalTime.of(time.getHour(), time.getMinute() / 15 * 15).toString();
+        return statisticsService.getHeatmap(time.toLocalDate(), time.toLocalDate(), 15).stream()
+                .filter(cell -> cell.dayOfWeek() == time.getDayOfWeek().getValue() && cell.slotStart().equals(slotStart))
+                .mapToLong(StatisticsService.HeatmapCell::quantity)
+                .sum();
+    }
+
+    private double todayRevenue() {
+        salesRollup.flush();
+        List<StatisticsService.RevenueData> revenue = statisticsService.getRevenueData(1);
+        return revenue.get(0).revenue();
+    }
+}
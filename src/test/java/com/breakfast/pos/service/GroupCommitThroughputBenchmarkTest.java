@@ -0,0 +1,105 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 結帳吞吐量基準測試：單筆交易 vs group-commit
+ * 預設不執行，使用 ./mvnw test -Dtest=GroupCommitThroughputBenchmarkTest -Dbenchmark=true 啟動
+ */
+@SpringBootTest(properties = {
+        "app.checkout.group-commit.enabled=true",
+        "app.checkout.group-commit.batch-size=32",
+        "app.checkout.group-commit.max-wait-ms=5",
+        "app.checkout.group-commit.writers=2",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.breakfast.pos=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GroupCommitThroughputBenchmarkTest {
+
+    private static final int CLIENTS = 48;
+    private static final int ORDERS_PER_CLIENT = 50;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private GroupCommitOrderIngestion groupCommitIngestion;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("比較單筆交易與 group-commit 的結帳吞吐量")
+    void compareThroughput() throws Exception {
+        Function<OrderRequest, OrderResponse> perRequest = request -> transactionTemplate.execute(
+                status -> orderWriter.writeAll(List.of(request)).get(0).getOrThrow());
+        Function<OrderRequest, OrderResponse> groupCommit = groupCommitIngestion::submit;
+
+        // Warm-up
+        run(perRequest, 8, 20);
+        run(groupCommit, 8, 20);
+
+        double perRequestRate = run(perRequest, CLIENTS, ORDERS_PER_CLIENT);
+        double groupCommitRate = run(groupCommit, CLIENTS, ORDERS_PER_CLIENT);
+
+        System.out.printf("%nCheckout throughput (%d clients x %d orders)%n", CLIENTS, ORDERS_PER_CLIENT);
+        System.out.printf("  per-request transaction : %10.1f orders/s%n", perRequestRate);
+        System.out.printf("  group commit            : %10.1f orders/s (x%.2f)%n",
+                groupCommitRate, groupCommitRate / perRequestRate);
+    }
+
+    private double run(Function<OrderRequest, OrderResponse> path, int clients, int ordersPerClient)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    int placed = 0;
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        OrderResponse response = path.apply(sampleOrder());
+                        assertNotNull(response.id());
+                        placed++;
+                    }
+                    return placed;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            assertEquals(clients * ordersPerClient, total);
+            return total / (elapsed / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static OrderRequest sampleOrder() {
+        return new OrderRequest("A1", "DINE_IN", List.of(
+                new CartItemRequest(1L, 1, null),
+                new CartItemRequest(2L, 2, null),
+                new CartItemRequest(3L, 1, "少冰")), null);
+    }
+}
@@ -0,0 +1,126 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.KitchenBoardResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenBoardTest {
+
+    @Mock
+    private AdminOrderService adminOrderService;
+
+    private KitchenBoard board;
+
+    @BeforeEach
+    void setUp() {
+        board = new KitchenBoard(adminOrderService, 16, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        board.shutdown();
+    }
+
+    @Test
+    @DisplayName("啟動重建應依狀態分桶載入進行中訂單")
+    void shouldRebuildFromActiveOrders() {
+        // Arrange
+        when(adminOrderService.getOrdersByStatus(KitchenBoard.ACTIVE_STATUSES))
+                .thenReturn(List.of(order(1L, "PENDING"), order(2L, "PREPARING")));
+
+        // Act
+        board.rebuild();
+        KitchenBoardResponse snapshot = board.snapshot();
+
+        // Assert
+        assertThat(snapshot.pending()).extracting(OrderResponse::id).containsExactly(1L);
+        assertThat(snapshot.preparing()).extracting(OrderResponse::id).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("新訂單與狀態變更應移動分桶，完成後移出看板並遞增版本")
+    void shouldMoveOrdersBetweenBucketsAndRemoveWhenDone() {
+        // Arrange
+        long initialVersion = board.snapshot().version();
+
+        // Act & Assert
+        board.onOrderPlaced(new OrderPlacedEvent(order(10L, "PENDING")));
+        assertThat(board.snapshot().pending()).extracting(OrderResponse::id).containsExactly(10L);
+
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(order(10L, "PREPARING")));
+        KitchenBoardResponse preparing = board.snapshot();
+        assertThat(preparing.pending()).isEmpty();
+        assertThat(preparing.preparing()).extracting(OrderResponse::id).containsExactly(10L);
+
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(order(10L, "SERVED")));
+        KitchenBoardResponse done = board.snapshot();
+        assertThat(done.pending()).isEmpty();
+        assertThat(done.preparing()).isEmpty();
+        assertThat(done.version()).isEqualTo(initialVersion + 3);
+        verify(adminOrderService, never()).getOrdersByStatus(any());
+    }
+
+    @Test
+    @DisplayName("重建期間收到的事件應優先於資料庫查詢結果")
+    void shouldPreferEventsReceivedDuringRebuild() {
+        // Arrange: 查詢進行中時訂單 1 已被送餐，查詢結果仍是舊的 PENDING
+        when(adminOrderService.getOrdersByStatus(KitchenBoard.ACTIVE_STATUSES)).thenAnswer(invocation -> {
+            board.onOrderPlaced(new OrderPlacedEvent(order(1L, "PENDING")));
+            board.onOrderStatusChanged(new OrderStatusChangedEvent(order(1L, "SERVED")));
+            return List.of(order(1L, "PENDING"), order(2L, "PENDING"));
+        });
+
+        // Act
+        board.rebuild();
+
+        // Assert
+        assertThat(board.snapshot().pending()).extracting(OrderResponse::id).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("定期比對應補上其他節點的新訂單與狀態變更，並移除已完成的訂單")
+    void shouldReconcileChangesMadeOnOtherNodes() {
+        // Arrange
+        board.onOrderPlaced(new OrderPlacedEvent(order(1L, "PENDING")));
+        board.onOrderPlaced(new OrderPlacedEvent(order(2L, "PENDING")));
+        long before = board.snapshot().version();
+        when(adminOrderService.getOrdersByStatus(KitchenBoard.ACTIVE_STATUSES))
+                .thenReturn(List.of(order(1L, "PENDING"), order(2L, "PREPARING"), order(3L, "PENDING")));
+
+        // Act
+        board.refresh();
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(order(1L, "SERVED")));
+        when(adminOrderService.getOrdersByStatus(KitchenBoard.ACTIVE_STATUSES))
+                .thenReturn(List.of(order(2L, "PREPARING")));
+        board.refresh();
+
+        // Assert
+        KitchenBoardResponse snapshot = board.snapshot();
+        assertThat(snapshot.pending()).isEmpty();
+        assertThat(snapshot.preparing()).extracting(OrderResponse::id).containsExactly(2L);
+        // 訂單 2 移動、3 新增、1 由事件移除、3 由比對移除；未變更的訂單 1 不重複推播
+        assertThat(snapshot.version()).isEqualTo(before + 4);
+    }
+
+    private static OrderResponse order(Long id, String status) {
+        return new OrderResponse(id, status, "DINE_IN", "A1", new BigDecimal("80.00"),
+                LocalDateTime.of(2024, 1, 1, 8, 0), List.of());
+    }
+}
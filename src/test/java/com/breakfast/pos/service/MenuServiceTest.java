@@ -3,11 +3,14 @@ package com.breakfast.pos.service;
 import com.breakfast.pos.exception.ResourceNotFoundException;
 import com.breakfast.pos.mapper.CategoryMapper;
 import com.breakfast.pos.mapper.ProductMapper;
+import com.breakfast.pos.model.dto.MenuDeltaResponse;
 import com.breakfast.pos.model.dto.ProductRequest;
 import com.breakfast.pos.model.dto.ProductResponse;
 import com.breakfast.pos.model.entity.Category;
+import com.breakfast.pos.model.entity.MenuChangeLog;
 import com.breakfast.pos.model.entity.Product;
 import com.breakfast.pos.repository.CategoryRepository;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
 import com.breakfast.pos.repository.ProductRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,10 +20,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +44,12 @@ class MenuServiceTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private MenuChangeLogRepository changeLogRepository;
+
+    @Mock
+    private MenuChangeRecorder changeRecorder;
+
     @InjectMocks
     private MenuService menuService;
 
@@ -128,5 +140,58 @@ class MenuServiceTest {
         // Assert
         assertFalse(product.isAvailable());
         verify(productRepository, times(1)).save(product);
+        verify(changeRecorder, times(1)).recordProductChange(1L, MenuChangeLog.Operation.UPSERT);
+    }
+
+    @Test
+    @DisplayName("差異同步應只回傳異動的商品與已刪除的商品 id")
+    void shouldReturnMenuDeltaSinceVersion() {
+        // Arrange
+        var updated = Product.builder().id(1L).name("起司蛋堡").price(new BigDecimal("50")).build();
+        var updatedResponse = new ProductResponse(1L, "起司蛋堡", new BigDecimal("50"), null, "漢堡", true);
+        when(changeLogRepository.currentVersion()).thenReturn(12L);
+        when(changeLogRepository.findOldestVersion()).thenReturn(5L);
+        when(changeLogRepository.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(10L, 12L))
+                .thenReturn(List.of(change(11L, 1L, MenuChangeLog.Operation.UPSERT),
+                        change(12L, 2L, MenuChangeLog.Operation.DELETE)));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(updated));
+        when(productMapper.toResponseList(List.of(updated))).thenReturn(List.of(updatedResponse));
+
+        // Act
+        MenuDeltaResponse delta = menuService.getChangesSince(10L);
+
+        // Assert
+        assertEquals(12L, delta.version());
+        assertFalse(delta.full());
+        assertEquals(List.of(updatedResponse), delta.upserts());
+        assertEquals(List.of(2L), delta.deletes());
+    }
+
+    @Test
+    @DisplayName("版本早於保留的異動紀錄時應回傳完整菜單")
+    void shouldFallBackToFullMenuWhenVersionTooOld() {
+        // Arrange
+        when(changeLogRepository.currentVersion()).thenReturn(12L);
+        when(changeLogRepository.findOldestVersion()).thenReturn(5L);
+        when(productRepository.findAll()).thenReturn(List.of());
+        when(productMapper.toResponseList(List.of())).thenReturn(List.of());
+
+        // Act
+        MenuDeltaResponse delta = menuService.getChangesSince(2L);
+
+        // Assert
+        assertTrue(delta.full());
+        assertEquals(12L, delta.version());
+        verify(changeLogRepository, never())
+                .findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(anyLong(), anyLong());
+    }
+
+    private MenuChangeLog change(long version, long productId, MenuChangeLog.Operation operation) {
+        return MenuChangeLog.builder()
+                .version(version)
+                .entityType(MenuChangeLog.EntityType.PRODUCT)
+                .entityId(productId)
+                .operation(operation)
+                .build();
     }
 }
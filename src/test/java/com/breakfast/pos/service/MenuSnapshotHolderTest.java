@@ -0,0 +1,90 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.MenuSnapshotRefreshedEvent;
+import com.breakfast.pos.model.entity.MenuChangeLog;
+import com.breakfast.pos.model.entity.Product;
+import com.breakfast.pos.repository.CategoryRepository;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
+import com.breakfast.pos.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuSnapshotHolderTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private MenuChangeLogRepository changeLogRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MenuSnapshotHolder holder;
+
+    @BeforeEach
+    void setUp() {
+        holder = new MenuSnapshotHolder(productRepository, categoryRepository, changeLogRepository,
+                eventPublisher, transactionManager);
+    }
+
+    @Test
+    @DisplayName("資料庫菜單版本前進時 (其他節點異動) 應重建快照並發佈異動紀錄")
+    void shouldRefreshWhenDatabaseVersionAdvances() {
+        // Arrange
+        Product product = Product.builder().id(1L).name("起司蛋堡").price(new BigDecimal("45.00"))
+                .available(true).build();
+        MenuChangeLog change = MenuChangeLog.builder().version(8L)
+                .entityType(MenuChangeLog.EntityType.PRODUCT).entityId(1L)
+                .operation(MenuChangeLog.Operation.UPSERT).build();
+        when(changeLogRepository.currentVersion()).thenReturn(7L, 8L, 8L);
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(changeLogRepository.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(7L, 8L))
+                .thenReturn(List.of(change));
+        holder.current();
+
+        // Act
+        holder.refreshIfStale();
+
+        // Assert
+        assertEquals(8L, holder.current().version());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof MenuSnapshotRefreshedEvent refreshed && refreshed.changes().equals(List.of(change))));
+    }
+
+    @Test
+    @DisplayName("菜單版本未變更時不應重建快照")
+    void shouldSkipRefreshWhenVersionUnchanged() {
+        // Arrange
+        when(changeLogRepository.currentVersion()).thenReturn(7L);
+        holder.current();
+
+        // Act
+        holder.refreshIfStale();
+
+        // Assert
+        assertEquals(7L, holder.current().version());
+        verify(productRepository, times(1)).findAll();
+        verify(eventPublisher, times(1)).publishEvent(any(MenuSnapshotRefreshedEvent.class));
+    }
+}
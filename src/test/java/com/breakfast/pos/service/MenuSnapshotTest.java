@@ -0,0 +1,53 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.entity.Category;
+import com.breakfast.pos.model.entity.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuSnapshotTest {
+
+    @Test
+    @DisplayName("快照應依 id 查找商品並以分為單位保存價格")
+    void shouldLookupProductsById() {
+        // Arrange
+        Category burgers = Category.builder().id(1L).name("漢堡系列").build();
+        List<Product> products = List.of(
+                Product.builder().id(30L).name("紅茶").price(new BigDecimal("25")).available(false).build(),
+                Product.builder().id(2L).name("起司蛋堡").price(new BigDecimal("45.50")).category(burgers)
+                        .available(true).build());
+
+        // Act
+        MenuSnapshot snapshot = MenuSnapshot.of(7L, products, Map.of(1L, "漢堡系列"));
+
+        // Assert
+        assertEquals(7L, snapshot.version());
+        assertEquals(2, snapshot.size());
+        assertEquals(-1, snapshot.indexOf(3L));
+
+        int burger = snapshot.indexOf(2L);
+        assertEquals(4550L, snapshot.priceCents(burger));
+        assertEquals(new BigDecimal("45.50"), snapshot.price(burger));
+        assertEquals("漢堡系列", snapshot.categoryName(burger));
+        assertTrue(snapshot.isAvailable(burger));
+
+        int tea = snapshot.indexOf(30L);
+        assertEquals(2500L, snapshot.priceCents(tea));
+        assertFalse(snapshot.isAvailable(tea));
+        assertNull(snapshot.categoryName(tea));
+    }
+
+    @Test
+    @DisplayName("金額轉換應四捨五入至分")
+    void shouldConvertAmountsToCents() {
+        assertEquals(4550L, MenuSnapshot.toCents(new BigDecimal("45.5")));
+        assertEquals(101L, MenuSnapshot.toCents(new BigDecimal("1.005")));
+        assertEquals(new BigDecimal("0.99"), MenuSnapshot.fromCents(99L));
+    }
+}
@@ -0,0 +1,45 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.support.SqlStatementRecorder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.breakfast.pos.support.SqlStatementRecorder")
+class OrderBatchInsertTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    @DisplayName("多品項結帳每張表只應送出一個批次 INSERT")
+    void shouldWriteMultiItemCheckoutWithOneBatchedInsertPerTable() {
+        // Arrange
+        OrderRequest request = new OrderRequest("B2", "DINE_IN", List.of(
+                new CartItemRequest(1L, 1, null),
+                new CartItemRequest(2L, 2, "加起司"),
+                new CartItemRequest(3L, 1, null),
+                new CartItemRequest(1L, 1, "不加洋蔥")), null);
+        SqlStatementRecorder.reset();
+
+        // Act
+        OrderResponse response = orderService.placeOrder(request);
+
+        // Assert
+        assertNotNull(response.id());
+        assertEquals(4, response.items().size());
+        assertEquals(1, SqlStatementRecorder.countInsertsInto("orders"),
+                () -> "Expected one INSERT for orders: " + SqlStatementRecorder.statements());
+        assertEquals(1, SqlStatementRecorder.countInsertsInto("order_items"),
+                () -> "Expected one batched INSERT for order_items: " + SqlStatementRecorder.statements());
+    }
+}
@@ -0,0 +1,59 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.projection.OrderExportLine;
+import com.breakfast.pos.repository.OrderExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceTest {
+
+    @Mock
+    private OrderExportRepository orderExportRepository;
+
+    private OrderExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderExportService(orderExportRepository, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("CSV 文字欄位以 = + - @ 開頭時應前置單引號，數值欄位維持原值")
+    @SuppressWarnings("unchecked")
+    void shouldEscapeFormulaPrefixesInCsv() throws Exception {
+        // Arrange
+        OrderExportLine line = new OrderExportLine(1L, LocalDateTime.of(2026, 10, 1, 8, 0), "COMPLETED",
+                "DINE_IN", "@A1", new BigDecimal("45.00"), 2L, "=HYPERLINK(\"http://x\")", 1,
+                new BigDecimal("45.00"), "+加蛋,-去醬", new BigDecimal("-5.00"));
+        doAnswer(invocation -> {
+            invocation.<Consumer<OrderExportLine>>getArgument(2).accept(line);
+            return null;
+        }).when(orderExportRepository).streamLines(any(), any(), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        service.export(LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 1), OrderExportService.Format.CSV, out);
+
+        // Assert
+        String row = out.toString(StandardCharsets.UTF_8).split("\r\n")[1];
+        assertThat(row).isEqualTo("1,2026-10-01T08:00,COMPLETED,DINE_IN,'@A1,45.00,2,"
+                + "\"'=HYPERLINK(\"\"http://x\"\")\",1,45.00,\"'+加蛋,-去醬\",-5.00");
+    }
+}
@@ -0,0 +1,156 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.OrderItemResponse;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.projection.OrderSalesLine;
+import com.breakfast.pos.repository.OrderExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderLineColumnStoreTest {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+
+    @Mock
+    private OrderExportRepository orderExportRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderLineColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            Consumer<OrderSalesLine> consumer = invocation.getArgument(1);
+            consumer.accept(new OrderSalesLine(1L, DAY.atTime(7, 10), "TAKEAWAY", "蛋餅", 2, new BigDecimal("70.00")));
+            consumer.accept(new OrderSalesLine(1L, DAY.atTime(7, 10), "TAKEAWAY", "奶茶", 1, new BigDecimal("25.00")));
+            consumer.accept(new OrderSalesLine(2L, DAY.atTime(7, 40), "DINE_IN", "蛋餅", 1, new BigDecimal("35.00")));
+            consumer.accept(new OrderSalesLine(3L, DAY.atTime(9, 5), "TAKEAWAY", "蛋餅", 4, new BigDecimal("140.00")));
+            return null;
+        }).when(orderExportRepository).streamSalesLines(any(), any());
+
+        store = new OrderLineColumnStore(orderExportRepository, transactionTemplate, 30);
+        store.load();
+    }
+
+    @Test
+    @DisplayName("應依商品、類型與時段篩選後加總")
+    void shouldFilterAndSum() {
+        // Act
+        List<OrderLineColumnStore.Group> groups = store.query(new OrderLineColumnStore.Filter(
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), List.of("蛋餅"), Order.OrderType.TAKEAWAY, 7, 8),
+                Set.of());
+
+        // Assert
+        assertThat(groups).singleElement().satisfies(group -> {
+            assertThat(group.quantity()).isEqualTo(2);
+            assertThat(group.revenueCents()).isEqualTo(7_000);
+            assertThat(group.lines()).isEqualTo(1);
+            assertThat(group.product()).isNull();
+        });
+    }
+
+    @Test
+    @DisplayName("應依指定維度分組，並包含下單追加的明細")
+    void shouldGroupByDimensionsIncludingAppendedLines() {
+        // Arrange
+        store.onOrderPlaced(new OrderPlacedEvent(order(4L, "PENDING", DAY.atTime(9, 30),
+                item("奶茶", 3, "75.00"))));
+
+        // Act
+        List<OrderLineColumnStore.Group> groups = store.query(new OrderLineColumnStore.Filter(
+                null, null, null, null, null, null),
+                EnumSet.of(OrderLineColumnStore.Dimension.PRODUCT, OrderLineColumnStore.Dimension.HOUR));
+
+        // Assert
+        assertThat(groups).extracting(OrderLineColumnStore.Group::product, OrderLineColumnStore.Group::hour,
+                        OrderLineColumnStore.Group::quantity)
+                .containsExactlyInAnyOrder(
+                        tuple("蛋餅", 7, 3L),
+                        tuple("奶茶", 7, 1L),
+                        tuple("蛋餅", 9, 4L),
+                        tuple("奶茶", 9, 3L));
+        assertThat(groups).allSatisfy(group ->
+                assertThat(group.weekday()).isNull());
+    }
+
+    @Test
+    @DisplayName("取消的訂單不應計入")
+    void shouldExcludeCancelledOrders() {
+        // Act
+        store.onOrderStatusChanged(new OrderStatusChangedEvent(order(3L, "CANCELLED", DAY.atTime(9, 5),
+                item("蛋餅", 4, "140.00"))));
+        List<OrderLineColumnStore.Group> groups = store.query(new OrderLineColumnStore.Filter(
+                null, null, List.of("蛋餅"), null, null, null),
+                EnumSet.of(OrderLineColumnStore.Dimension.DATE, OrderLineColumnStore.Dimension.WEEKDAY));
+
+        // Assert
+        assertThat(groups).singleElement().satisfies(group -> {
+            assertThat(group.date()).isEqualTo(DAY);
+            assertThat(group.weekday()).isEqualTo(DAY.getDayOfWeek().getValue());
+            assertThat(group.quantity()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    @DisplayName("輪詢應補上其他節點的新訂單與取消，重疊區間內已存在的訂單不重複計入")
+    void shouldPollOrdersFromOtherNodes() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<OrderSalesLine> consumer = invocation.getArgument(1);
+            consumer.accept(new OrderSalesLine(3L, DAY.atTime(9, 5), "TAKEAWAY", "蛋餅", 4, new BigDecimal("140.00")));
+            consumer.accept(new OrderSalesLine(5L, DAY.atTime(9, 6), "DINE_IN", "奶茶", 2, new BigDecimal("50.00")));
+            return null;
+        }).when(orderExportRepository).streamSalesLines(any(), any());
+        when(orderExportRepository.findCancelledSince(any())).thenReturn(List.of(
+                new OrderExportRepository.CancelledOrder(2L, DAY.atTime(7, 40), DAY.atTime(10, 0))));
+
+        // Act
+        store.poll();
+        store.poll();
+        List<OrderLineColumnStore.Group> groups = store.query(new OrderLineColumnStore.Filter(
+                null, null, null, null, null, null), EnumSet.of(OrderLineColumnStore.Dimension.PRODUCT));
+
+        // Assert
+        assertThat(groups).extracting(OrderLineColumnStore.Group::product, OrderLineColumnStore.Group::quantity)
+                .containsExactlyInAnyOrder(tuple("蛋餅", 6L), tuple("奶茶", 3L));
+    }
+
+    private static OrderResponse order(Long id, String status, LocalDateTime createdAt, OrderItemResponse item) {
+        return new OrderResponse(id, status, "TAKEAWAY", null, item.subtotal(), createdAt, List.of(item));
+    }
+
+    private static OrderItemResponse item(String productName, int quantity, String subtotal) {
+        return new OrderItemResponse(null, productName, quantity, null, null, new BigDecimal(subtotal));
+    }
+}
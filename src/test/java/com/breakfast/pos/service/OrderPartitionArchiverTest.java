@@ -0,0 +1,69 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.repository.OrderPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPartitionArchiverTest {
+
+    @Mock
+    private OrderPartitionRepository partitionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderPartitionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new OrderPartitionArchiver(partitionRepository, new TransactionTemplate(transactionManager), 2, 3);
+    }
+
+    @Test
+    @DisplayName("應預建未來月份分割區並封存超過保留月數的分割區")
+    void shouldPremakeFutureMonthsAndArchiveExpiredOnes() {
+        // Arrange: 保留 3 個月 (2024-04 ~ 2024-06)
+        YearMonth current = YearMonth.of(2024, 6);
+        when(partitionRepository.findAttachedMonths()).thenReturn(List.of(
+                YearMonth.of(2024, 2), YearMonth.of(2024, 3), YearMonth.of(2024, 4),
+                YearMonth.of(2024, 5), YearMonth.of(2024, 6)));
+
+        // Act
+        archiver.maintain(current);
+
+        // Assert
+        verify(partitionRepository).createMonth(YearMonth.of(2024, 6));
+        verify(partitionRepository).createMonth(YearMonth.of(2024, 7));
+        verify(partitionRepository).createMonth(YearMonth.of(2024, 8));
+        verify(partitionRepository).archiveMonth(YearMonth.of(2024, 2));
+        verify(partitionRepository).archiveMonth(YearMonth.of(2024, 3));
+        verify(partitionRepository, times(2)).archiveMonth(any());
+    }
+
+    @Test
+    @DisplayName("單一月份封存失敗不應影響其他月份")
+    void shouldContinueWhenOneMonthFailsToArchive() {
+        // Arrange
+        when(partitionRepository.findAttachedMonths()).thenReturn(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)));
+        doThrow(new IllegalStateException("lock timeout")).when(partitionRepository).archiveMonth(YearMonth.of(2024, 1));
+
+        // Act
+        archiver.maintain(YearMonth.of(2024, 6));
+
+        // Assert
+        verify(partitionRepository).archiveMonth(YearMonth.of(2024, 2));
+    }
+}
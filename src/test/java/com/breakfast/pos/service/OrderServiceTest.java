@@ -1,5 +1,6 @@
 package com.breakfast.pos.service;
 
+import com.breakfast.pos.event.OrderPlacedEvent;
 import com.breakfast.pos.exception.ResourceNotFoundException;
 import com.breakfast.pos.mapper.OrderMapper;
 import com.breakfast.pos.model.dto.CartItemRequest;
@@ -7,14 +8,20 @@ import com.breakfast.pos.model.dto.OrderRequest;
 import com.breakfast.pos.model.dto.OrderResponse;
 import com.breakfast.pos.model.entity.Order;
 import com.breakfast.pos.model.entity.Product;
+import com.breakfast.pos.repository.CategoryRepository;
+import com.breakfast.pos.repository.MenuChangeLogRepository;
 import com.breakfast.pos.repository.OrderRepository;
 import com.breakfast.pos.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,6 +30,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,17 +45,39 @@ class OrderServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private PrintService printService;
+    private CategoryRepository categoryRepository;
 
     @Mock
-    private LineService lineService;
+    private MenuChangeLogRepository menuChangeLogRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @Mock
     private OrderMapper orderMapper;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GroupCommitOrderIngestion groupCommitIngestion;
+
     private OrderService orderService;
 
+    @BeforeEach
+    void setUp() {
+        MenuSnapshotHolder menuSnapshotHolder = new MenuSnapshotHolder(productRepository, categoryRepository,
+                menuChangeLogRepository, eventPublisher, transactionManager);
+        OrderWriter orderWriter = new OrderWriter(orderRepository,
+                new OrderPricingResolver(productRepository, menuSnapshotHolder),
+                outboxService, eventPublisher, orderMapper);
+        orderService = new OrderService(orderRepository, orderWriter, groupCommitIngestion,
+                new CheckoutIdempotencyCache(600, 100), new TransactionTemplate(transactionManager), orderMapper);
+    }
+
     @Test
     @DisplayName("應該成功建立訂單並計算總額")
     void shouldPlaceOrderSuccessfully() {
@@ -61,11 +93,11 @@ class OrderServiceTest {
         CartItemRequest itemRequest = new CartItemRequest(1L, 2, "不加洋蔥");
         OrderRequest orderRequest = new OrderRequest("A1", "DINE_IN", List.of(itemRequest), null);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
-            Order order = invocation.getArgument(0);
-            order.setId(100L);
-            return order;
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.get(0).setId(100L);
+            return orders;
         });
 
         // OrderResponse(id, status, type, tableNumber, totalAmount, createdAt, items)
@@ -82,8 +114,11 @@ class OrderServiceTest {
         assertEquals("PENDING", result.status());
         assertEquals("DINE_IN", result.type());
 
-        verify(printService, times(1)).printReceipt(any(Order.class));
-        verify(lineService, times(1)).notifyOrderStatusChange(any(Order.class));
+        verify(orderRepository).saveAll(argThat((List<Order> orders) ->
+                new BigDecimal("90.00").equals(orders.get(0).getTotalAmount())
+                        && new BigDecimal("90.00").equals(orders.get(0).getItems().get(0).getSubtotal())));
+        verify(outboxService, times(1)).enqueueOrderSideEffects(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(OrderPlacedEvent.class));
     }
 
     @Test
@@ -100,14 +135,14 @@ class OrderServiceTest {
         CartItemRequest itemRequest = new CartItemRequest(1L, 1, null);
         OrderRequest orderRequest = new OrderRequest(null, "TAKEAWAY", List.of(itemRequest), null);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findAll()).thenReturn(List.of(product));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> orderService.placeOrder(orderRequest));
 
         assertTrue(exception.getMessage().contains("Product is not available"));
-        verify(orderRepository, never()).save(any());
+        verify(orderRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -118,10 +153,125 @@ class OrderServiceTest {
         CartItemRequest itemRequest = new CartItemRequest(999L, 1, null);
         OrderRequest orderRequest = new OrderRequest(null, "TAKEAWAY", List.of(itemRequest), null);
 
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findAll()).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
                 () -> orderService.placeOrder(orderRequest));
     }
+
+    @Test
+    @DisplayName("多個品項應由菜單快照定價，並一次回報所有不存在與完售的商品")
+    void shouldReportAllInvalidProductsWithSingleLookup() {
+        // Arrange
+        Product soldOut = Product.builder()
+                .id(1L)
+                .name("已售完商品")
+                .price(new BigDecimal("30.00"))
+                .available(false)
+                .build();
+
+        OrderRequest orderRequest = new OrderRequest(null, "TAKEAWAY", List.of(
+                new CartItemRequest(1L, 1, null),
+                new CartItemRequest(1L, 2, "加蛋"),
+                new CartItemRequest(998L, 1, null),
+                new CartItemRequest(999L, 1, null)), null);
+
+        when(productRepository.findAll()).thenReturn(List.of(soldOut));
+
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> orderService.placeOrder(orderRequest));
+
+        assertTrue(exception.getMessage().contains("998, 999"));
+        assertTrue(exception.getMessage().contains("已售完商品"));
+        verify(productRepository, times(1)).findAll();
+        verify(productRepository, never()).findAllById(anyIterable());
+        verify(orderRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("相同 idempotencyKey 重送時應直接由快取回傳，不再查詢資料庫")
+    void shouldServeRetriedCheckoutFromIdempotencyCache() {
+        // Arrange
+        Product product = Product.builder()
+                .id(1L)
+                .name("起司蛋堡")
+                .price(new BigDecimal("45.00"))
+                .available(true)
+                .build();
+        OrderRequest orderRequest = new OrderRequest("A1", "DINE_IN",
+                List.of(new CartItemRequest(1L, 1, null)), "tablet-1-0001");
+        OrderResponse expectedResponse = new OrderResponse(100L, "PENDING", "DINE_IN", "A1", new BigDecimal("45.00"),
+                LocalDateTime.now(), List.of());
+
+        when(orderRepository.findByIdempotencyKey("tablet-1-0001")).thenReturn(Optional.empty());
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderMapper.toResponse(any(Order.class))).thenReturn(expectedResponse);
+
+        // Act
+        OrderResponse first = orderService.placeOrder(orderRequest);
+        OrderResponse retried = orderService.placeOrder(orderRequest);
+
+        // Assert
+        assertSame(first, retried);
+        verify(orderRepository, times(1)).findByIdempotencyKey("tablet-1-0001");
+        verify(orderRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("idempotencyKey 唯一鍵衝突時應回傳勝出的既有訂單而非錯誤")
+    void shouldReturnWinningOrderOnIdempotencyKeyViolation() {
+        // Arrange
+        Product product = Product.builder()
+                .id(1L)
+                .name("起司蛋堡")
+                .price(new BigDecimal("45.00"))
+                .available(true)
+                .build();
+        Order winner = Order.builder().id(200L).idempotencyKey("tablet-2-0001").build();
+        OrderRequest orderRequest = new OrderRequest(null, "TAKEAWAY",
+                List.of(new CartItemRequest(1L, 1, null)), "tablet-2-0001");
+        OrderResponse winnerResponse = new OrderResponse(200L, "PENDING", "TAKEAWAY", null, new BigDecimal("45.00"),
+                LocalDateTime.now(), List.of());
+
+        when(orderRepository.findByIdempotencyKey("tablet-2-0001"))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(orderRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_orders_idempotency_key"));
+        when(orderMapper.toResponse(winner)).thenReturn(winnerResponse);
+
+        // Act
+        OrderResponse result = orderService.placeOrder(orderRequest);
+
+        // Assert
+        assertEquals(200L, result.id());
+        verify(eventPublisher, never()).publishEvent(any(OrderPlacedEvent.class));
+    }
+
+    @Test
+    @DisplayName("其他約束違反時應直接拋出，不當作 idempotencyKey 衝突")
+    void shouldRethrowOtherIntegrityViolations() {
+        // Arrange
+        Product product = Product.builder()
+                .id(1L)
+                .name("起司蛋堡")
+                .price(new BigDecimal("45.00"))
+                .available(true)
+                .build();
+        OrderRequest orderRequest = new OrderRequest(null, "TAKEAWAY",
+                List.of(new CartItemRequest(1L, 1, null)), "tablet-3-0001");
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("fk_order_items_order");
+
+        when(orderRepository.findByIdempotencyKey("tablet-3-0001")).thenReturn(Optional.empty());
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(orderRepository.saveAll(anyList())).thenThrow(violation);
+
+        // Act & Assert
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> orderService.placeOrder(orderRequest)));
+        verify(orderRepository, times(1)).findByIdempotencyKey("tablet-3-0001");
+    }
 }
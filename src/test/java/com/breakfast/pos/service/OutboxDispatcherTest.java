@@ -0,0 +1,141 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.entity.Order;
+import com.breakfast.pos.model.entity.OutboxEvent;
+import com.breakfast.pos.repository.OrderRepository;
+import com.breakfast.pos.repository.OutboxEventRepository;
+import com.breakfast.pos.repository.OutboxLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxLeaseRepository outboxLeaseRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PrintService printService;
+
+    @Mock
+    private LineService lineService;
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(outboxLeaseRepository.tryAcquire(any(), anyString(), any())).thenReturn(true);
+        dispatcher = new OutboxDispatcher(outboxEventRepository, outboxLeaseRepository, orderRepository,
+                printService, lineService);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("提交後應派送出單與 LINE 通知並標記完成")
+    void shouldDeliverPendingEventsAndMarkDone() {
+        // Arrange
+        Order order = Order.builder().id(100L).status(Order.OrderStatus.PENDING).build();
+        stubPending(OutboxEvent.Channel.PRINT, List.of(event(1L, OutboxEvent.Channel.PRINT, 100L)));
+        stubPending(OutboxEvent.Channel.LINE, List.of(event(2L, OutboxEvent.Channel.LINE, 100L)));
+        when(orderRepository.findWithItemsById(100L)).thenReturn(Optional.of(order));
+
+        // Act
+        dispatcher.signalAll();
+
+        // Assert
+        verify(printService, timeout(2000)).printReceipt(order);
+        verify(lineService, timeout(2000)).notifyOrderStatusChange(order);
+        verify(outboxEventRepository, timeout(2000)).markFinished(eq(1L), eq(OutboxEvent.Status.DONE), eq(1),
+                any(LocalDateTime.class), isNull());
+        verify(outboxEventRepository, timeout(2000)).markFinished(eq(2L), eq(OutboxEvent.Status.DONE), eq(1),
+                any(LocalDateTime.class), isNull());
+    }
+
+    @Test
+    @DisplayName("派送失敗應排程重試，且同一 channel 後續事件需等待以維持順序")
+    void shouldRetryWithBackoffAndKeepChannelOrder() {
+        // Arrange
+        Order first = Order.builder().id(100L).build();
+        Order second = Order.builder().id(101L).build();
+        stubPending(OutboxEvent.Channel.PRINT, List.of(
+                event(1L, OutboxEvent.Channel.PRINT, 100L),
+                event(2L, OutboxEvent.Channel.PRINT, 101L)));
+        stubPending(OutboxEvent.Channel.LINE, List.of());
+        when(orderRepository.findWithItemsById(100L)).thenReturn(Optional.of(first));
+        when(orderRepository.findWithItemsById(101L)).thenReturn(Optional.of(second));
+        doThrow(new IllegalStateException("printer offline")).when(printService).printReceipt(first);
+
+        // Act
+        dispatcher.signalAll();
+
+        // Assert
+        verify(outboxEventRepository, timeout(2000)).scheduleRetry(eq(1L), eq(1), any(LocalDateTime.class),
+                contains("printer offline"));
+        verify(printService, after(300).never()).printReceipt(second);
+    }
+
+    @Test
+    @DisplayName("其他節點持有 channel 租約時不應讀取或派送該 channel 的事件")
+    void shouldSkipChannelLeasedByAnotherNode() {
+        // Arrange
+        when(outboxLeaseRepository.tryAcquire(eq(OutboxEvent.Channel.PRINT), anyString(), any())).thenReturn(false);
+        Order order = Order.builder().id(100L).build();
+        stubPending(OutboxEvent.Channel.PRINT, List.of(event(1L, OutboxEvent.Channel.PRINT, 100L)));
+        stubPending(OutboxEvent.Channel.LINE, List.of(event(2L, OutboxEvent.Channel.LINE, 100L)));
+        when(orderRepository.findWithItemsById(100L)).thenReturn(Optional.of(order));
+
+        // Act
+        dispatcher.signalAll();
+
+        // Assert
+        verify(lineService, timeout(2000)).notifyOrderStatusChange(order);
+        verify(outboxLeaseRepository, timeout(2000)).release(eq(OutboxEvent.Channel.LINE), anyString());
+        verify(outboxEventRepository, never()).findByChannelAndStatusOrderByIdAsc(eq(OutboxEvent.Channel.PRINT),
+                any(), any());
+        verify(printService, never()).printReceipt(any());
+    }
+
+    private void stubPending(OutboxEvent.Channel channel, List<OutboxEvent> events) {
+        when(outboxEventRepository.findByChannelAndStatusOrderByIdAsc(eq(channel), eq(OutboxEvent.Status.PENDING),
+                any())).thenReturn(events, List.of());
+    }
+
+    private static OutboxEvent event(Long id, OutboxEvent.Channel channel, Long orderId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .channel(channel)
+                .orderId(orderId)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.model.dto.CartItemRequest;
+import com.breakfast.pos.model.dto.OrderRequest;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.model.dto.ProductResponse;
+import com.breakfast.pos.support.SqlStatementRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 讀取路徑的 SQL 數量上限，N+1 查詢回歸時測試失敗
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.breakfast.pos.support.SqlStatementRecorder")
+class ReadPathStatementCountTest {
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private AdminOrderService adminOrderService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private OrderResponse lastOrder;
+
+    @BeforeEach
+    void placeOrders() {
+        for (int i = 0; i < 3; i++) {
+            lastOrder = orderService.placeOrder(new OrderRequest("C" + i, "DINE_IN", List.of(
+                    new CartItemRequest(1L, 1, null),
+                    new CartItemRequest(2L, 1, null),
+                    new CartItemRequest(3L, 2, null)), null));
+        }
+    }
+
+    @Test
+    @DisplayName("查詢所有商品應以單一 SQL 一併載入分類")
+    void getAllProductsShouldNotIssueNPlusOneSelects() {
+        AtomicReference<List<ProductResponse>> products = new AtomicReference<>();
+
+        int statements = SqlStatementRecorder.countStatements(() -> products.set(menuService.getAllProducts()));
+
+        assertTrue(products.get().size() > 1);
+        assertTrue(products.get().stream().allMatch(product -> product.categoryName() != null));
+        assertMaxStatements(1, statements);
+    }
+
+    @Test
+    @DisplayName("查詢單一商品應以單一 SQL 一併載入分類")
+    void getProductByIdShouldFetchCategory() {
+        int statements = SqlStatementRecorder.countStatements(() -> menuService.getProductById(1L).orElseThrow());
+
+        assertMaxStatements(1, statements);
+    }
+
+    @Test
+    @DisplayName("訂單列表應以兩個 SQL (訂單頁 + 明細 IN 查詢) 完成，且不讀取商品表")
+    void getAllOrdersShouldUseIdPageAndFetchJoin() {
+        AtomicReference<List<OrderResponse>> orders = new AtomicReference<>();
+
+        int statements = SqlStatementRecorder.countStatements(
+                () -> orders.set(adminOrderService.getOrders(null, 20, false).orders()));
+
+        assertTrue(orders.get().size() >= 3);
+        assertEquals(lastOrder.id(), orders.get().get(0).id());
+        assertTrue(orders.get().stream().allMatch(order -> !order.items().isEmpty()));
+        assertMaxStatements(2, statements);
+        assertNoProductReads();
+    }
+
+    @Test
+    @DisplayName("訂單詳情應以兩個 SQL 載入訂單與明細，且不讀取商品表")
+    void getOrderByIdShouldFetchItems() {
+        AtomicReference<OrderResponse> order = new AtomicReference<>();
+
+        int statements = SqlStatementRecorder.countStatements(
+                () -> order.set(adminOrderService.getOrderById(lastOrder.id())));
+
+        assertEquals(3, order.get().items().size());
+        assertTrue(order.get().items().stream().anyMatch(item -> "起司蛋堡".equals(item.productName())));
+        assertMaxStatements(2, statements);
+        assertNoProductReads();
+    }
+
+    private void assertNoProductReads() {
+        assertTrue(SqlStatementRecorder.statements().stream()
+                        .noneMatch(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*\\bproducts\\b.*")),
+                () -> "Expected no reads from products: " + SqlStatementRecorder.statements());
+    }
+
+    private void assertMaxStatements(int max, int actual) {
+        assertTrue(actual <= max, () -> "Expected at most " + max + " statement(s) but was " + actual + ": "
+                + SqlStatementRecorder.statements());
+    }
+}
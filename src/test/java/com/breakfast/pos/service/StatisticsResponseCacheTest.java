@@ -0,0 +1,142 @@
+package com.breakfast.pos.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StatisticsResponseCacheTest {
+
+    private StatisticsResponseCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("同一 key 的並行未命中應只計算一次")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        // Arrange
+        cache = new StatisticsResponseCache(60_000, 60_000, 16);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> cache.get("revenue:7", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "v1";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("v1");
+        }
+        assertThat(loads).hasValue(1);
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("過期後應先回傳舊結果，並在背景更新")
+    void shouldServeStaleWhileRevalidating() throws Exception {
+        // Arrange
+        cache = new StatisticsResponseCache(0, 60_000, 16);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("top-products:5:null", () -> "v" + loads.incrementAndGet());
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        String stale = cache.get("top-products:5:null", () -> {
+            await(release);
+            return "v" + loads.incrementAndGet();
+        });
+        release.countDown();
+
+        // Assert
+        assertThat(stale).isEqualTo("v1");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String refreshed = stale;
+        while (!refreshed.equals("v2") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            refreshed = cache.get("top-products:5:null", () -> "v2");
+        }
+        assertThat(refreshed).isEqualTo("v2");
+    }
+
+    @Test
+    @DisplayName("計算失敗不應被快取")
+    void shouldNotCacheFailures() {
+        // Arrange
+        cache = new StatisticsResponseCache(60_000, 60_000, 16);
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.get("heatmap", () -> {
+            throw new IllegalArgumentException("bad range");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.get("heatmap", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("超過筆數上限時應淘汰最早寫入的項目")
+    void shouldEvictOldestEntryWhenFull() {
+        // Arrange
+        cache = new StatisticsResponseCache(60_000, 60_000, 2);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a", () -> "a" + loads.incrementAndGet());
+        cache.get("b", () -> "b" + loads.incrementAndGet());
+
+        // Act
+        cache.get("c", () -> "c" + loads.incrementAndGet());
+
+        // Assert
+        assertThat(cache.get("b", () -> "reloaded")).isEqualTo("b2");
+        assertThat(cache.get("c", () -> "reloaded")).isEqualTo("c3");
+        assertThat(cache.get("a", () -> "reloaded")).isEqualTo("reloaded");
+    }
+
+    @Test
+    @DisplayName("關閉後背景更新被拒絕時應回傳舊結果，且不留下進行中的計算讓後續請求等待")
+    void shouldNotLeaveInFlightEntryWhenRefreshIsRejected() throws Exception {
+        // Arrange
+        cache = new StatisticsResponseCache(0, 500, 16);
+        cache.get("revenue:7", () -> "v1");
+        cache.shutdown();
+
+        // Act
+        String stale = cache.get("revenue:7", () -> "v2");
+        Thread.sleep(600);
+
+        // Assert
+        assertThat(stale).isEqualTo("v1");
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThat(cache.get("revenue:7", () -> "v3")).isEqualTo("v3"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.breakfast.pos.service;
+
+import com.breakfast.pos.event.OrderPlacedEvent;
+import com.breakfast.pos.event.OrderStatusChangedEvent;
+import com.breakfast.pos.model.dto.OrderResponse;
+import com.breakfast.pos.repository.DailySalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodaySalesCounterTest {
+
+    @Mock
+    private SalesRollup salesRollup;
+
+    private TodaySalesCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        when(salesRollup.dayTotals(any()))
+                .thenReturn(new DailySalesRepository.DayTotals(new BigDecimal("150.00"), 2));
+        counter = new TodaySalesCounter(salesRollup);
+        counter.seed();
+    }
+
+    @Test
+    @DisplayName("應由資料庫載入今日初始值，之後讀取不再查詢")
+    void shouldSeedFromDatabaseOnce() {
+        // Act
+        TodaySalesCounter.Totals totals = counter.today();
+        counter.today();
+
+        // Assert
+        assertThat(totals.revenueCents()).isEqualTo(15_000);
+        assertThat(totals.orderCount()).isEqualTo(2);
+        verify(salesRollup, times(1)).dayTotals(any());
+    }
+
+    @Test
+    @DisplayName("下單累加、取消扣除，前一天的訂單不影響今日計數")
+    void shouldApplyPlacedAndCancelledOrdersOfToday() {
+        // Act
+        counter.onOrderPlaced(new OrderPlacedEvent(order(1L, "PENDING", "80.50", LocalDateTime.now())));
+        counter.onOrderPlaced(new OrderPlacedEvent(order(2L, "PENDING", "40.00", LocalDateTime.now())));
+        counter.onOrderStatusChanged(new OrderStatusChangedEvent(order(2L, "CANCELLED", "40.00", LocalDateTime.now())));
+        counter.onOrderStatusChanged(new OrderStatusChangedEvent(order(1L, "SERVED", "80.50", LocalDateTime.now())));
+        counter.onOrderPlaced(new OrderPlacedEvent(order(3L, "PENDING", "99.00",
+                LocalDate.now().minusDays(1).atTime(23, 59))));
+
+        // Assert
+        TodaySalesCounter.Totals totals = counter.today();
+        assertThat(totals.revenueCents()).isEqualTo(15_000 + 8_050);
+        assertThat(totals.orderCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("輪詢時應以資料庫的今日合計取代計數，涵蓋其他節點的訂單")
+    void shouldReplaceCountsWithDatabaseTotalsOnRefresh() {
+        // Arrange
+        counter.onOrderPlaced(new OrderPlacedEvent(order(1L, "PENDING", "80.50", LocalDateTime.now())));
+        when(salesRollup.dayTotals(LocalDate.now()))
+                .thenReturn(new DailySalesRepository.DayTotals(new BigDecimal("330.50"), 5));
+
+        // Act
+        counter.refresh();
+
+        // Assert
+        TodaySalesCounter.Totals totals = counter.today();
+        assertThat(totals.revenueCents()).isEqualTo(33_050);
+        assertThat(totals.orderCount()).isEqualTo(5);
+    }
+
+    private static OrderResponse order(Long id, String status, String total, LocalDateTime createdAt) {
+        return new OrderResponse(id, status, "DINE_IN", "A1", new BigDecimal(total), createdAt, List.of());
+    }
+}
@@ -0,0 +1,52 @@
+package com.breakfast.pos.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 測試用 Hibernate StatementInspector
+ * 記錄目前執行緒實際 prepare 的 SQL；JDBC 批次寫入時同一張表只會 prepare 一次。
+ * 透過 hibernate.session_factory.statement_inspector 註冊。
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    /**
+     * 執行 action 並回傳期間 prepare 的 SQL 數量；只計算目前執行緒，
+     * 不受 outbox 派送等背景執行緒影響
+     */
+    public static int countStatements(Runnable action) {
+        reset();
+        action.run();
+        return STATEMENTS.get().size();
+    }
+
+    /**
+     * 計算寫入指定資料表的 INSERT 敘述數量
+     */
+    public static long countInsertsInto(String table) {
+        String prefix = "insert into " + table.toLowerCase(Locale.ROOT) + " ";
+        return STATEMENTS.get().stream()
+                .map(sql -> sql.trim().toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith(prefix))
+                .count();
+    }
+}